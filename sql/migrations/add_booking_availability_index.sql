@@ -0,0 +1,4 @@
+-- Index for the per-car date-overlap checks in dao.BookingDAO
+USE rentops_ai;
+
+CREATE INDEX idx_bookings_car_dates ON bookings(car_id, start_date, end_date);
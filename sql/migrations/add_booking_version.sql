@@ -0,0 +1,5 @@
+-- Per-car version counter for the optimistic booking path in dao.BookingDAO
+-- (booking.concurrency=optimistic). Every committed booking bumps it.
+USE rentops_ai;
+
+ALTER TABLE cars ADD COLUMN booking_version INT NOT NULL DEFAULT 0;
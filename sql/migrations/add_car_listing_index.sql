@@ -0,0 +1,4 @@
+-- Index for the paged car listing (ORDER BY make, model, id) in dao.CarDAO.getCars
+USE rentops_ai;
+
+CREATE INDEX idx_cars_make_model_id ON cars(make, model, id);
@@ -0,0 +1,5 @@
+-- Indexes for the (created_at, id) keyset pagination in dao.BookingDAO / dao.UserDAO
+USE rentops_ai;
+
+CREATE INDEX idx_bookings_created_id ON bookings(created_at, id);
+CREATE INDEX idx_users_created_id ON users(created_at, id);
@@ -0,0 +1,8 @@
+-- Indexes for the prefix (LIKE 'word%') searches in dao.UserDAO (searchUsersPage) and
+-- dao.CarDAO (searchCars).
+-- users.username and cars.license_plate are already UNIQUE; cars.make is covered by
+-- idx_cars_make_model_id (add_car_listing_index.sql).
+USE rentops_ai;
+
+CREATE INDEX idx_users_organization ON users(organization);
+CREATE INDEX idx_cars_model ON cars(model);
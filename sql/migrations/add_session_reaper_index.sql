@@ -0,0 +1,5 @@
+-- Range index for the chunked expired-session DELETEs in dao.SessionDAO
+-- (services.SessionReaper). Logged-out sessions use idx_sessions_active_accessed.
+USE rentops_ai;
+
+CREATE INDEX idx_sessions_created ON user_sessions(created_at);
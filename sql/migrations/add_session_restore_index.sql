@@ -0,0 +1,6 @@
+-- Lets SessionDAO.getActiveSession (ORDER BY last_accessed DESC LIMIT 1 over
+-- active sessions) read a single index entry instead of filesorting.
+-- Token restores use the existing unique index on session_token.
+USE rentops_ai;
+
+CREATE INDEX idx_sessions_active_accessed ON user_sessions(is_active, last_accessed);
@@ -0,0 +1,6 @@
+-- Status indexes used by the dashboard aggregate query (dao.DashboardStatsDAO)
+USE rentops_ai;
+
+-- Covering index: status counts and revenue sum read only the index
+CREATE INDEX idx_bookings_status_price ON bookings(status, total_price);
+CREATE INDEX idx_cars_status ON cars(status);
@@ -3,27 +3,106 @@ package dao;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import models.Booking;
+import models.BookingTransition;
+import models.BookingView;
+import models.Car;
 import utils.DatabaseConnection;
+import utils.SchemaCapabilities;
 
 public class BookingDAO {
 
+    // Explicit column lists instead of SELECT *; SUMMARY leaves dates/created_at unset
+    private static final String DETAIL_COLUMNS = "id, user_id, car_id, start_date, end_date, status, total_price, created_at";
+    private static final String SUMMARY_COLUMNS = "id, user_id, car_id, status, total_price";
+    // Statuses that hold a car; must match isCarAvailableInternal
+    static final String BLOCKING_STATUSES = "('confirmed', 'active', 'pending', 'reserved')";
+    // Booking plus user/car display fields in one round trip (LEFT JOIN keeps orphaned bookings)
+    private static final String VIEW_SELECT = "SELECT b.id, b.user_id, b.car_id, b.start_date, b.end_date, b.status, b.total_price, b.created_at, "
+            + "u.username, c.make AS car_make, c.model AS car_model, c.year AS car_year "
+            + "FROM bookings b LEFT JOIN users u ON u.id = b.user_id LEFT JOIN cars c ON c.id = b.car_id";
+
+    /**
+     * How createBookingTransactional guards against double-booking, set by
+     * booking.concurrency in config/db.properties.
+     */
+    public enum ConcurrencyMode {
+        /** Serialize per car with SELECT ... FOR UPDATE (default). */
+        LOCKING,
+        /** Version check on cars.booking_version with retry on conflict. */
+        OPTIMISTIC
+    }
+
+    private final ConcurrencyMode mode;
+    private final int maxRetries;
+    private final AtomicLong optimisticRetries = new AtomicLong();
+
+    public BookingDAO() {
+        this(configuredMode());
+    }
+
+    public BookingDAO(ConcurrencyMode mode) {
+        this.mode = mode;
+        this.maxRetries = DatabaseConnection.getIntProperty("booking.optimistic.maxRetries", 8);
+    }
+
+    private static ConcurrencyMode configuredMode() {
+        String value = DatabaseConnection.getProperty("booking.concurrency", "locking");
+        try {
+            return ConcurrencyMode.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown booking.concurrency '" + value + "', using locking");
+            return ConcurrencyMode.LOCKING;
+        }
+    }
+
     public List<Booking> getAllBookings() {
+        return getAllBookings(Projection.DETAIL);
+    }
+
+    public List<Booking> getAllBookings(Projection projection) {
         List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM bookings ORDER BY created_at DESC";
+        String sql = "SELECT " + columns(projection) + " FROM bookings ORDER BY created_at DESC";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                bookings.add(new Booking(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getInt("car_id"),
-                        rs.getDate("start_date").toLocalDate(),
-                        rs.getDate("end_date").toLocalDate(),
-                        rs.getString("status"),
-                        rs.getBigDecimal("total_price"),
-                        rs.getTimestamp("created_at").toLocalDateTime()
-                ));
+            bookings.addAll(RowMappers.BOOKING.mapAll(rs));
+        } catch (SQLException e) {
+            System.err.println("Database error getting bookings: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return bookings;
+    }
+
+    /**
+     * Lists bookings with username and car make/model resolved by join,
+     * avoiding a user and car lookup per row. Keyset-paginated: up to
+     * {@code limit} bookings after {@code after} (null for the first page),
+     * newest first.
+     */
+    public Page<BookingView> getBookingViewsPage(PageCursor after, int limit) {
+        String sql = VIEW_SELECT
+                + (after != null ? " WHERE " + PageCursor.condition("b.") : "")
+                + " ORDER BY b.created_at DESC, b.id DESC LIMIT ?";
+        return page(sql, after, limit, RowMappers.BOOKING_VIEW);
+    }
+
+    /**
+     * Booking views at an OFFSET, in the same order as getBookingViewsPage.
+     * For jumping to an arbitrary position; prefer the keyset variant.
+     */
+    public List<BookingView> getBookingViews(int offset, int limit) {
+        List<BookingView> bookings = new ArrayList<>();
+        String sql = VIEW_SELECT + " ORDER BY b.created_at DESC, b.id DESC LIMIT ? OFFSET ?";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limit);
+            stmt.setInt(2, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                bookings.addAll(RowMappers.BOOKING_VIEW.mapAll(rs));
             }
         } catch (SQLException e) {
             System.err.println("Database error getting bookings: " + e.getMessage());
@@ -32,23 +111,71 @@ public class BookingDAO {
         return bookings;
     }
 
+    public int countBookings() {
+        String sql = "SELECT COUNT(*) FROM bookings";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error counting bookings: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    private <T extends Booking> Page<T> page(String sql, PageCursor after, int limit, RowMapper<T> mapper) {
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int idx = after != null ? after.bind(stmt, 1) : 1;
+            // One extra row tells us whether another page exists
+            stmt.setInt(idx, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<T> rows = mapper.mapAll(rs);
+                if (rows.size() <= limit) {
+                    return new Page<>(rows, null);
+                }
+                rows = new ArrayList<>(rows.subList(0, limit));
+                T last = rows.get(limit - 1);
+                // Rows without created_at sort last and cannot be keyed past; stop there
+                return new Page<>(rows, last.getCreatedAt() != null ? PageCursor.after(last.getCreatedAt(), last.getId()) : null);
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error getting bookings page: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new Page<>(new ArrayList<>(), null);
+    }
+
+    /**
+     * Lists a user's bookings with car make/model/year joined in, so the My
+     * Bookings view loads in one round trip instead of one car lookup per row.
+     */
+    public List<BookingView> getBookingsWithCarsByUserId(int userId) {
+        List<BookingView> bookings = new ArrayList<>();
+        String sql = VIEW_SELECT + " WHERE b.user_id = ? ORDER BY b.created_at DESC";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                bookings.addAll(RowMappers.BOOKING_VIEW.mapAll(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error getting user booking views: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return bookings;
+    }
+
     public List<Booking> getBookingsByUserId(int userId) {
+        return getBookingsByUserId(userId, Projection.DETAIL);
+    }
+
+    public List<Booking> getBookingsByUserId(int userId, Projection projection) {
         List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM bookings WHERE user_id = ? ORDER BY created_at DESC";
+        String sql = "SELECT " + columns(projection) + " FROM bookings WHERE user_id = ? ORDER BY created_at DESC";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                bookings.add(new Booking(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getInt("car_id"),
-                        rs.getDate("start_date").toLocalDate(),
-                        rs.getDate("end_date").toLocalDate(),
-                        rs.getString("status"),
-                        rs.getBigDecimal("total_price"),
-                        rs.getTimestamp("created_at").toLocalDateTime()
-                ));
+            try (ResultSet rs = stmt.executeQuery()) {
+                bookings.addAll(RowMappers.BOOKING.mapAll(rs));
             }
         } catch (SQLException e) {
             System.err.println("Database error getting user bookings: " + e.getMessage());
@@ -58,21 +185,11 @@ public class BookingDAO {
     }
 
     public Booking getById(int id) {
-        String sql = "SELECT * FROM bookings WHERE id = ?";
+        String sql = "SELECT " + DETAIL_COLUMNS + " FROM bookings WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new Booking(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getInt("car_id"),
-                        rs.getDate("start_date").toLocalDate(),
-                        rs.getDate("end_date").toLocalDate(),
-                        rs.getString("status"),
-                        rs.getBigDecimal("total_price"),
-                        rs.getTimestamp("created_at").toLocalDateTime()
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.BOOKING.mapOne(rs);
             }
         } catch (SQLException e) {
             System.err.println("Database error getting booking by ID: " + e.getMessage());
@@ -81,6 +198,44 @@ public class BookingDAO {
         return null;
     }
 
+    /**
+     * Loads every booking that currently blocks its car and has not ended,
+     * for the in-memory availability index.
+     *
+     * @return the bookings, or null if the query failed
+     */
+    public List<Booking> getBlockingReservations() {
+        String sql = "SELECT " + SUMMARY_COLUMNS + ", start_date, end_date FROM bookings WHERE status IN " + BLOCKING_STATUSES
+                + " AND end_date >= CURDATE()";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            return RowMappers.BOOKING.mapAll(rs);
+        } catch (SQLException e) {
+            System.err.println("Database error loading reservations: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Same as {@link #getBlockingReservations()} for one car.
+     *
+     * @return the bookings, or null if the query failed
+     */
+    public List<Booking> getBlockingReservationsForCar(int carId) {
+        String sql = "SELECT " + SUMMARY_COLUMNS + ", start_date, end_date FROM bookings WHERE car_id = ? AND status IN " + BLOCKING_STATUSES
+                + " AND end_date >= CURDATE()";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, carId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.BOOKING.mapAll(rs);
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error loading car reservations: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     public boolean createBooking(Booking booking) {
         String sql = "INSERT INTO bookings (user_id, car_id, start_date, end_date, status, total_price, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -100,12 +255,24 @@ public class BookingDAO {
     }
 
     /**
-     * Creates a booking while preventing double-booking by locking the related
-     * car rows. This method starts a transaction, checks availability with
-     * SELECT ... FOR UPDATE, then inserts.
+     * Creates a booking while preventing double-booking. Uses the path
+     * selected by {@code booking.concurrency} (see {@link ConcurrencyMode});
+     * the optimistic path needs the cars.booking_version column and falls
+     * back to locking without it.
      */
     public boolean createBookingTransactional(Booking booking) {
-        String insertSql = "INSERT INTO bookings (user_id, car_id, start_date, end_date, status, total_price, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        if (mode == ConcurrencyMode.OPTIMISTIC && SchemaCapabilities.get().hasColumn("cars", "booking_version")) {
+            return createBookingOptimistic(booking);
+        }
+        return createBookingLocked(booking);
+    }
+
+    /**
+     * Locking path: starts a transaction, locks the car row with
+     * SELECT ... FOR UPDATE, checks availability, then inserts. Concurrent
+     * bookings for the same car queue on the row lock.
+     */
+    private boolean createBookingLocked(Booking booking) {
         String lockSql = "SELECT id FROM cars WHERE id = ? FOR UPDATE";
         try (Connection conn = DatabaseConnection.getConnection()) {
             conn.setAutoCommit(false);
@@ -120,32 +287,231 @@ public class BookingDAO {
                 return false;
             }
 
-            try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
-                stmt.setInt(1, booking.getUserId());
-                stmt.setInt(2, booking.getCarId());
-                stmt.setDate(3, Date.valueOf(booking.getStartDate()));
-                stmt.setDate(4, Date.valueOf(booking.getEndDate()));
-                stmt.setString(5, booking.getStatus());
-                stmt.setBigDecimal(6, booking.getTotalPrice());
-                stmt.setTimestamp(7, Timestamp.valueOf(booking.getCreatedAt()));
-                boolean ok = stmt.executeUpdate() == 1;
-                if (ok) {
+            // Keep the version moving so optimistic writers see this booking
+            if (SchemaCapabilities.get().hasColumn("cars", "booking_version")) {
+                try (PreparedStatement bump = conn.prepareStatement("UPDATE cars SET booking_version = booking_version + 1 WHERE id = ?")) {
+                    bump.setInt(1, booking.getCarId());
+                    bump.executeUpdate();
+                }
+            }
+
+            if (insertReturningId(conn, booking)) {
+                conn.commit();
+                return true;
+            }
+            conn.rollback();
+            return false;
+        } catch (SQLException e) {
+            System.err.println("Database error creating booking (tx): " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Optimistic path: reads the car's booking_version without locking,
+     * checks availability against that snapshot, then claims the version
+     * with a conditional UPDATE. If another booking for the car committed in
+     * between, the UPDATE matches no row and the attempt is retried with a
+     * fresh snapshot. The car row is only locked from the claim to commit.
+     */
+    private boolean createBookingOptimistic(Booking booking) {
+        String versionSql = "SELECT booking_version FROM cars WHERE id = ?";
+        String claimSql = "UPDATE cars SET booking_version = booking_version + 1 WHERE id = ? AND booking_version = ?";
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                long version;
+                try (PreparedStatement stmt = conn.prepareStatement(versionSql)) {
+                    stmt.setInt(1, booking.getCarId());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (!rs.next()) {
+                            conn.rollback();
+                            return false;
+                        }
+                        version = rs.getLong(1);
+                    }
+                }
+
+                if (!isCarAvailableInternal(conn, booking.getCarId(), booking.getStartDate(), booking.getEndDate())) {
+                    conn.rollback();
+                    return false;
+                }
+
+                int claimed;
+                try (PreparedStatement stmt = conn.prepareStatement(claimSql)) {
+                    stmt.setInt(1, booking.getCarId());
+                    stmt.setLong(2, version);
+                    claimed = stmt.executeUpdate();
+                }
+                if (claimed == 1 && insertReturningId(conn, booking)) {
                     conn.commit();
                     return true;
-                } else {
-                    conn.rollback();
+                }
+                conn.rollback();
+                if (claimed == 1) {
+                    return false;
+                }
+            } catch (SQLException e) {
+                // Deadlocks and lock wait timeouts are retryable like a lost claim
+                if (!isRetryable(e)) {
+                    System.err.println("Database error creating booking (optimistic): " + e.getMessage());
+                    e.printStackTrace();
                     return false;
                 }
             }
+            optimisticRetries.incrementAndGet();
+            backoff(attempt);
+        }
+        System.err.println("Booking for car " + booking.getCarId() + " gave up after " + maxRetries + " optimistic retries");
+        return false;
+    }
+
+    /**
+     * Group commit for the booking intake queue: locks every car involved
+     * (in id order, so concurrent batches cannot deadlock), re-checks each
+     * booking's availability, inserts the ones still free in one batch, marks
+     * their cars reserved and commits once. Callers must not pass bookings
+     * that overlap each other.
+     *
+     * @return per-booking accepted flags (accepted bookings get their id
+     *         set), or null if the transaction failed and nothing was saved
+     */
+    public boolean[] createBookingsBatch(List<Booking> bookings) {
+        boolean[] accepted = new boolean[bookings.size()];
+        if (bookings.isEmpty()) {
+            return accepted;
+        }
+        TreeSet<Integer> carIds = new TreeSet<>();
+        for (Booking b : bookings) {
+            carIds.add(b.getCarId());
+        }
+        String placeholders = String.join(", ", Collections.nCopies(carIds.size(), "?"));
+        String lockSql = "SELECT id FROM cars WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE";
+        String insertSql = "INSERT INTO bookings (user_id, car_id, start_date, end_date, status, total_price, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        boolean versioned = SchemaCapabilities.get().hasColumn("cars", "booking_version");
+        String carSql = versioned
+                ? "UPDATE cars SET status = 'reserved', booking_version = booking_version + 1 WHERE id = ?"
+                : "UPDATE cars SET status = 'reserved' WHERE id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement lock = conn.prepareStatement(lockSql)) {
+                    int i = 1;
+                    for (Integer carId : carIds) {
+                        lock.setInt(i++, carId);
+                    }
+                    lock.executeQuery().close();
+                }
+
+                List<Booking> toInsert = new ArrayList<>();
+                TreeSet<Integer> reservedCars = new TreeSet<>();
+                try (PreparedStatement stmt = conn.prepareStatement(insertSql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    for (int i = 0; i < bookings.size(); i++) {
+                        Booking booking = bookings.get(i);
+                        if (!isCarAvailableInternal(conn, booking.getCarId(), booking.getStartDate(), booking.getEndDate())) {
+                            continue;
+                        }
+                        accepted[i] = true;
+                        toInsert.add(booking);
+                        reservedCars.add(booking.getCarId());
+                        stmt.setInt(1, booking.getUserId());
+                        stmt.setInt(2, booking.getCarId());
+                        stmt.setDate(3, Date.valueOf(booking.getStartDate()));
+                        stmt.setDate(4, Date.valueOf(booking.getEndDate()));
+                        stmt.setString(5, booking.getStatus());
+                        stmt.setBigDecimal(6, booking.getTotalPrice());
+                        stmt.setTimestamp(7, Timestamp.valueOf(booking.getCreatedAt()));
+                        stmt.addBatch();
+                    }
+                    if (!toInsert.isEmpty()) {
+                        stmt.executeBatch();
+                        // Keys come back in batch order
+                        try (ResultSet keys = stmt.getGeneratedKeys()) {
+                            for (Booking booking : toInsert) {
+                                if (keys.next()) {
+                                    booking.setId(keys.getInt(1));
+                                }
+                            }
+                        }
+                    }
+                }
+
+                if (!reservedCars.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(carSql)) {
+                        for (Integer carId : reservedCars) {
+                            stmt.setInt(1, carId);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+
+                conn.commit();
+                for (Integer carId : reservedCars) {
+                    CarDAO.invalidate(carId);
+                }
+                return accepted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
-            System.err.println("Database error creating booking (tx): " + e.getMessage());
+            System.err.println("Database error creating booking batch: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return null;
+        }
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(1, 2 << Math.min(attempt, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean insertReturningId(Connection conn, Booking booking) throws SQLException {
+        String insertSql = "INSERT INTO bookings (user_id, car_id, start_date, end_date, status, total_price, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(insertSql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, booking.getUserId());
+            stmt.setInt(2, booking.getCarId());
+            stmt.setDate(3, Date.valueOf(booking.getStartDate()));
+            stmt.setDate(4, Date.valueOf(booking.getEndDate()));
+            stmt.setString(5, booking.getStatus());
+            stmt.setBigDecimal(6, booking.getTotalPrice());
+            stmt.setTimestamp(7, Timestamp.valueOf(booking.getCreatedAt()));
+            if (stmt.executeUpdate() != 1) {
+                return false;
+            }
+            // Callers (availability index) need the new id
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    booking.setId(keys.getInt(1));
+                }
+            }
+            return true;
         }
     }
 
-    private boolean isCarAvailableInternal(Connection conn, int carId, LocalDate startDate, LocalDate endDate) {
-        String sql = "SELECT COUNT(*) FROM bookings WHERE car_id = ? AND status IN ('confirmed', 'active', 'pending', 'reserved') AND ((start_date <= ? AND end_date >= ?) OR (start_date <= ? AND end_date >= ?) OR (start_date >= ? AND end_date <= ?))";
+    /**
+     * Number of optimistic attempts that lost the version race and retried.
+     */
+    public long getOptimisticRetries() {
+        return optimisticRetries.get();
+    }
+
+    public ConcurrencyMode getConcurrencyMode() {
+        return mode;
+    }
+
+    /**
+     * Overlap check on the caller's transaction. Errors propagate so a
+     * deadlock or lock wait timeout is retried rather than read as "taken".
+     */
+    private boolean isCarAvailableInternal(Connection conn, int carId, LocalDate startDate, LocalDate endDate) throws SQLException {
+        String sql = "SELECT COUNT(*) FROM bookings WHERE car_id = ? AND status IN " + BLOCKING_STATUSES + " AND ((start_date <= ? AND end_date >= ?) OR (start_date <= ? AND end_date >= ?) OR (start_date >= ? AND end_date <= ?))";
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, carId);
             stmt.setDate(2, Date.valueOf(startDate));
@@ -154,14 +520,18 @@ public class BookingDAO {
             stmt.setDate(5, Date.valueOf(endDate));
             stmt.setDate(6, Date.valueOf(startDate));
             stmt.setDate(7, Date.valueOf(endDate));
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) == 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 0;
             }
-        } catch (SQLException e) {
-            System.err.println("Database error checking availability (tx): " + e.getMessage());
         }
-        return false;
+    }
+
+    /**
+     * Deadlock (SQLState 40001 / MySQL 1213) or lock wait timeout (1205):
+     * the transaction was rolled back and can simply be run again.
+     */
+    private static boolean isRetryable(SQLException e) {
+        return "40001".equals(e.getSQLState()) || e.getErrorCode() == 1213 || e.getErrorCode() == 1205;
     }
 
     public boolean updateBooking(Booking booking) {
@@ -195,6 +565,67 @@ public class BookingDAO {
         }
     }
 
+    /**
+     * Moves a booking to a new status and sets its car's status in one
+     * transaction on one connection, so the two can never disagree.
+     *
+     * @return the updated booking and car, or null if the booking does not
+     *         exist or the transaction failed (nothing is changed then)
+     */
+    public BookingTransition transitionBooking(int bookingId, String bookingStatus, String carStatus) {
+        String lockSql = "SELECT " + DETAIL_COLUMNS + " FROM bookings WHERE id = ? FOR UPDATE";
+        String bookingSql = "UPDATE bookings SET status = ? WHERE id = ?";
+        String carSql = "UPDATE cars SET status = ? WHERE id = ?";
+        String readCarSql = "SELECT " + CarDAO.columns(Projection.DETAIL) + " FROM cars WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Booking booking;
+                try (PreparedStatement lock = conn.prepareStatement(lockSql)) {
+                    lock.setInt(1, bookingId);
+                    try (ResultSet rs = lock.executeQuery()) {
+                        booking = RowMappers.BOOKING.mapOne(rs);
+                    }
+                }
+                if (booking == null) {
+                    conn.rollback();
+                    return null;
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(bookingSql)) {
+                    stmt.setString(1, bookingStatus);
+                    stmt.setInt(2, bookingId);
+                    stmt.executeUpdate();
+                }
+                booking.setStatus(bookingStatus);
+
+                Car car;
+                try (PreparedStatement stmt = conn.prepareStatement(carSql)) {
+                    stmt.setString(1, carStatus);
+                    stmt.setInt(2, booking.getCarId());
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(readCarSql)) {
+                    stmt.setInt(1, booking.getCarId());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        car = RowMappers.CAR.mapOne(rs);
+                    }
+                }
+
+                conn.commit();
+                CarDAO.invalidate(booking.getCarId());
+                return new BookingTransition(booking, car);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error transitioning booking: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     public boolean isCarAvailable(int carId, LocalDate startDate, LocalDate endDate) {
         String sql = "SELECT COUNT(*) FROM bookings WHERE car_id = ? AND status IN ('confirmed', 'active') AND ((start_date <= ? AND end_date >= ?) OR (start_date <= ? AND end_date >= ?) OR (start_date >= ? AND end_date <= ?))";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -237,4 +668,8 @@ public class BookingDAO {
         }
         return java.math.BigDecimal.ZERO;
     }
+
+    private static String columns(Projection projection) {
+        return projection == Projection.SUMMARY ? SUMMARY_COLUMNS : DETAIL_COLUMNS;
+    }
 }
@@ -2,65 +2,141 @@ package dao;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import models.Car;
 import utils.DatabaseConnection;
+import utils.SchemaCapabilities;
 
 public class CarDAO {
 
+    // Keeps IN (...) lists well below driver/packet limits
+    private static final int MAX_IN_LIST = 500;
+    // getById read-through cache, shared by all CarDAO instances
+    private static final EntityCache<Car> CACHE = new EntityCache<>("cars", 1000, 60, Car::new);
+
     public List<Car> getAllCars() {
         return getAllCarsWithImages();
     }
 
-    public List<Car> getAvailableCars() {
+    /**
+     * Lists all cars selecting only the columns the projection needs.
+     */
+    public List<Car> getAllCars(Projection projection) {
         List<Car> cars = new ArrayList<>();
-        String sql = "SELECT * FROM cars WHERE status = 'available' ORDER BY make, model";
+        String sql = "SELECT " + columns(projection) + " FROM cars ORDER BY make, model";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-            // Force metadata initialization to avoid NPE in some driver versions
-            rs.getMetaData();
-
-            // Check if total_km_driven column exists
-            boolean hasKmDrivenColumn = false;
-            try {
-                ResultSetMetaData metaData = rs.getMetaData();
-                for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                    if ("total_km_driven".equalsIgnoreCase(metaData.getColumnName(i))) {
-                        hasKmDrivenColumn = true;
-                        break;
-                    }
-                }
-                System.out.println("CarDAO: total_km_driven column exists in getAvailableCars: " + hasKmDrivenColumn);
-            } catch (Exception e) {
-                System.err.println("CarDAO: Error checking columns: " + e.getMessage());
+            cars.addAll(RowMappers.CAR.mapAll(rs));
+        } catch (SQLException e) {
+            System.err.println("Database error getting cars: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return cars;
+    }
+
+    /**
+     * One window of the getAllCars(projection) listing, for virtual tables.
+     */
+    public List<Car> getCars(Projection projection, int offset, int limit) {
+        List<Car> cars = new ArrayList<>();
+        String sql = "SELECT " + columns(projection) + " FROM cars ORDER BY make, model, id LIMIT ? OFFSET ?";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limit);
+            stmt.setInt(2, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                cars.addAll(RowMappers.CAR.mapAll(rs));
             }
+        } catch (SQLException e) {
+            System.err.println("Database error getting cars: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return cars;
+    }
 
-            while (rs.next()) {
-                // Use the constructor with or without total_km_driven based on column existence
-                if (hasKmDrivenColumn) {
-                    cars.add(new Car(
-                            rs.getInt("id"),
-                            rs.getString("make"),
-                            rs.getString("model"),
-                            rs.getInt("year"),
-                            rs.getString("license_plate"),
-                            rs.getString("status"),
-                            rs.getString("specs"),
-                            rs.getBigDecimal("price_per_day"),
-                            rs.getInt("total_km_driven")
-                    ));
-                } else {
-                    cars.add(new Car(
-                            rs.getInt("id"),
-                            rs.getString("make"),
-                            rs.getString("model"),
-                            rs.getInt("year"),
-                            rs.getString("license_plate"),
-                            rs.getString("status"),
-                            rs.getString("specs"),
-                            rs.getBigDecimal("price_per_day")
-                    ));
+    /**
+     * Server-side car search: every word must prefix-match make, model or
+     * license plate (a four-digit word may also match the year).
+     *
+     * @param availableOnly restrict to cars with status 'available'
+     * @param handle        optional, to cancel the query from another thread
+     * @return up to {@code limit} cars ordered by make and model; empty when
+     *         the query has no words or was cancelled
+     */
+    public List<Car> searchCars(String query, boolean availableOnly, Projection projection, int limit, QueryHandle handle) {
+        List<Car> cars = new ArrayList<>();
+        List<String> words = SearchTerms.words(query);
+        if (words.isEmpty()) {
+            return cars;
+        }
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns(projection)).append(" FROM cars WHERE ");
+        sql.append(availableOnly ? "status = 'available'" : "1 = 1");
+        for (String word : words) {
+            sql.append(" AND (make LIKE ? OR model LIKE ? OR license_plate LIKE ?");
+            if (SearchTerms.isYear(word)) {
+                sql.append(" OR year = ?");
+            }
+            sql.append(")");
+        }
+        sql.append(" ORDER BY make, model, id LIMIT ?");
+
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int idx = 1;
+            for (String word : words) {
+                String pattern = SearchTerms.prefix(word);
+                stmt.setString(idx++, pattern);
+                stmt.setString(idx++, pattern);
+                stmt.setString(idx++, pattern);
+                if (SearchTerms.isYear(word)) {
+                    stmt.setInt(idx++, Integer.parseInt(word));
+                }
+            }
+            stmt.setInt(idx, limit);
+            if (handle != null) {
+                handle.attach(stmt);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                cars.addAll(RowMappers.CAR.mapAll(rs));
+            } finally {
+                if (handle != null) {
+                    handle.detach();
                 }
             }
+        } catch (SQLException e) {
+            if (!SearchTerms.cancelled(handle)) {
+                System.err.println("Database error searching cars: " + e.getMessage());
+                e.printStackTrace();
+            }
+            cars.clear();
+        }
+        return cars;
+    }
+
+    public int countCars() {
+        String sql = "SELECT COUNT(*) FROM cars";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error counting cars: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    public List<Car> getAvailableCars() {
+        return getAvailableCars(Projection.DETAIL);
+    }
+
+    public List<Car> getAvailableCars(Projection projection) {
+        List<Car> cars = new ArrayList<>();
+        String sql = "SELECT " + columns(projection) + " FROM cars WHERE status = 'available' ORDER BY make, model";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            cars.addAll(RowMappers.CAR.mapAll(rs));
         } catch (SQLException e) {
             System.err.println("Database error getting available cars: " + e.getMessage());
             e.printStackTrace();
@@ -68,57 +144,123 @@ public class CarDAO {
         return cars;
     }
 
+    /**
+     * Finds cars with no blocking booking overlapping the requested dates,
+     * in one set-based query (NOT EXISTS over the car/date index).
+     * Cars under maintenance are never returned.
+     */
+    public List<Car> searchAvailableCars(CarSearchCriteria criteria) {
+        List<Car> cars = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns(Projection.LISTING))
+                .append(" FROM cars c WHERE c.status <> 'maintenance'")
+                .append(" AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.car_id = c.id")
+                .append(" AND b.status IN ").append(BookingDAO.BLOCKING_STATUSES)
+                .append(" AND b.start_date <= ? AND b.end_date >= ?)");
+        List<Object> params = new ArrayList<>();
+        params.add(Date.valueOf(criteria.getEndDate()));
+        params.add(Date.valueOf(criteria.getStartDate()));
+        if (criteria.getMake() != null && !criteria.getMake().trim().isEmpty()) {
+            sql.append(" AND c.make = ?");
+            params.add(criteria.getMake().trim());
+        }
+        if (criteria.getMinPricePerDay() != null) {
+            sql.append(" AND c.price_per_day >= ?");
+            params.add(criteria.getMinPricePerDay());
+        }
+        if (criteria.getMaxPricePerDay() != null) {
+            sql.append(" AND c.price_per_day <= ?");
+            params.add(criteria.getMaxPricePerDay());
+        }
+        if (criteria.getMinYear() != null) {
+            sql.append(" AND c.year >= ?");
+            params.add(criteria.getMinYear());
+        }
+        if (criteria.getMaxYear() != null) {
+            sql.append(" AND c.year <= ?");
+            params.add(criteria.getMaxYear());
+        }
+        sql.append(" ORDER BY c.make, c.model");
+
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                cars.addAll(RowMappers.CAR.mapAll(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error searching available cars: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return cars;
+    }
+
     public Car getById(int id) {
-        String sql = "SELECT * FROM cars WHERE id = ?";
+        return CACHE.get(id, this::loadById);
+    }
+
+    /**
+     * Hit/miss/eviction counters of the getById cache.
+     */
+    public static EntityCache<Car> cache() {
+        return CACHE;
+    }
+
+    /**
+     * Drops a car from the getById cache; for writes to cars made outside
+     * this class (e.g. status changes in BookingDAO transactions).
+     */
+    static void invalidate(int carId) {
+        CACHE.invalidate(carId);
+    }
+
+    private Car loadById(int id) {
+        String sql = "SELECT " + columns(Projection.DETAIL) + " FROM cars WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    // Check if total_km_driven column exists
-                    boolean hasKmDrivenColumn = false;
-                    try {
-                        ResultSetMetaData metaData = rs.getMetaData();
-                        for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                            if ("total_km_driven".equalsIgnoreCase(metaData.getColumnName(i))) {
-                                hasKmDrivenColumn = true;
-                                break;
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.err.println("CarDAO: Error checking columns in getById: " + e.getMessage());
-                    }
+                return RowMappers.CAR.mapOne(rs);
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error getting car by ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
 
-                    if (hasKmDrivenColumn) {
-                        return new Car(
-                                rs.getInt("id"),
-                                rs.getString("make"),
-                                rs.getString("model"),
-                                rs.getInt("year"),
-                                rs.getString("license_plate"),
-                                rs.getString("status"),
-                                rs.getString("specs"),
-                                rs.getBigDecimal("price_per_day"),
-                                rs.getInt("total_km_driven")
-                        );
-                    } else {
-                        return new Car(
-                                rs.getInt("id"),
-                                rs.getString("make"),
-                                rs.getString("model"),
-                                rs.getInt("year"),
-                                rs.getString("license_plate"),
-                                rs.getString("status"),
-                                rs.getString("specs"),
-                                rs.getBigDecimal("price_per_day")
-                        );
+    /**
+     * Loads several cars with one IN (...) query per chunk of ids.
+     *
+     * @return cars keyed by id; ids with no matching row are absent
+     */
+    public Map<Integer, Car> getByIds(Collection<Integer> ids) {
+        Map<Integer, Car> cars = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return cars;
+        }
+        List<Integer> unique = new ArrayList<>(new LinkedHashSet<>(ids));
+        String columns = columns(Projection.DETAIL);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < unique.size(); from += MAX_IN_LIST) {
+                List<Integer> chunk = unique.subList(from, Math.min(from + MAX_IN_LIST, unique.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                String sql = "SELECT " + columns + " FROM cars WHERE id IN (" + placeholders + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        for (Car car : RowMappers.CAR.mapAll(rs)) {
+                            cars.put(car.getId(), car);
+                        }
                     }
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Database error getting car by ID: " + e.getMessage());
+            System.err.println("Database error getting cars by IDs: " + e.getMessage());
             e.printStackTrace();
         }
-        return null;
+        return cars;
     }
 
     public boolean addCar(Car car) {
@@ -173,6 +315,9 @@ public class CarDAO {
             System.err.println("Database error updating car: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } finally {
+            // Also on failure: never leave a possibly stale entry behind
+            CACHE.invalidate(car.getId());
         }
     }
 
@@ -185,6 +330,8 @@ public class CarDAO {
             System.err.println("Database error deleting car: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } finally {
+            CACHE.invalidate(id);
         }
     }
 
@@ -198,6 +345,8 @@ public class CarDAO {
             System.err.println("Database error updating car status: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } finally {
+            CACHE.invalidate(carId);
         }
     }
 
@@ -221,136 +370,30 @@ public class CarDAO {
         return json.toString();
     }
 
-    /**
-     * Converts JSON string from database to list of image paths
-     */
-    private List<String> jsonToList(String json) {
-        List<String> imagePaths = new ArrayList<>();
-        if (json == null || json.trim().isEmpty() || "[]".equals(json.trim())) {
-            return imagePaths;
-        }
-
-        try {
-            // Simple JSON parsing for array of strings
-            String cleanJson = json.trim();
-            if (cleanJson.startsWith("[") && cleanJson.endsWith("]")) {
-                cleanJson = cleanJson.substring(1, cleanJson.length() - 1);
-                if (!cleanJson.trim().isEmpty()) {
-                    String[] parts = cleanJson.split(",");
-                    for (String part : parts) {
-                        String path = part.trim();
-                        if (path.startsWith("\"") && path.endsWith("\"")) {
-                            path = path.substring(1, path.length() - 1);
-                            path = path.replace("\\\"", "\"");
-                            imagePaths.add(path);
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error parsing JSON image paths: " + e.getMessage());
-        }
-
-        return imagePaths;
-    }
-
-    /**
-     * Checks if image columns exist in the database
-     */
-    private boolean checkImageColumnsExist(Connection conn) {
-        try {
-            DatabaseMetaData metaData = conn.getMetaData();
-            ResultSet columns = metaData.getColumns(null, null, "cars", null);
-            boolean hasExterior = false, hasInterior = false;
-
-            while (columns.next()) {
-                String columnName = columns.getString("COLUMN_NAME");
-                if ("exterior_images".equalsIgnoreCase(columnName)) {
-                    hasExterior = true;
-                } else if ("interior_images".equalsIgnoreCase(columnName)) {
-                    hasInterior = true;
-                }
-            }
-            return hasExterior && hasInterior;
-        } catch (SQLException e) {
-            System.err.println("Error checking image columns: " + e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * Loads car with image data from result set
-     */
-    private Car loadCarWithImages(ResultSet rs, boolean hasKmDrivenColumn, boolean hasImageColumns) throws SQLException {
-        Car car;
-
-        // Create car object based on available columns
-        if (hasKmDrivenColumn) {
-            car = new Car(
-                    rs.getInt("id"),
-                    rs.getString("make"),
-                    rs.getString("model"),
-                    rs.getInt("year"),
-                    rs.getString("license_plate"),
-                    rs.getString("status"),
-                    rs.getString("specs"),
-                    rs.getBigDecimal("price_per_day"),
-                    rs.getInt("total_km_driven")
-            );
-        } else {
-            car = new Car(
-                    rs.getInt("id"),
-                    rs.getString("make"),
-                    rs.getString("model"),
-                    rs.getInt("year"),
-                    rs.getString("license_plate"),
-                    rs.getString("status"),
-                    rs.getString("specs"),
-                    rs.getBigDecimal("price_per_day")
-            );
-        }
-
-        // Load image data if columns exist
-        if (hasImageColumns) {
-            try {
-                String exteriorJson = rs.getString("exterior_images");
-                String interiorJson = rs.getString("interior_images");
-
-                car.setExteriorImages(jsonToList(exteriorJson));
-                car.setInteriorImages(jsonToList(interiorJson));
-            } catch (SQLException e) {
-                System.err.println("Error loading image data for car " + car.getId() + ": " + e.getMessage());
-                // Continue without image data
-            }
-        }
-
-        return car;
-    }
-
     /**
      * Updates car images in the database
      */
     public boolean updateCarImages(int carId, List<String> exteriorImages, List<String> interiorImages) {
         String sql = "UPDATE cars SET exterior_images = ?, interior_images = ? WHERE id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            // Check if image columns exist
-            if (!checkImageColumnsExist(conn)) {
-                System.err.println("Image columns do not exist. Please run database update script.");
-                return false;
-            }
+        // Check if image columns exist
+        if (!SchemaCapabilities.get().carsHaveImageColumns()) {
+            System.err.println("Image columns do not exist. Please run database update script.");
+            return false;
+        }
 
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, listToJson(exteriorImages));
-                stmt.setString(2, listToJson(interiorImages));
-                stmt.setInt(3, carId);
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, listToJson(exteriorImages));
+            stmt.setString(2, listToJson(interiorImages));
+            stmt.setInt(3, carId);
 
-                return stmt.executeUpdate() == 1;
-            }
+            return stmt.executeUpdate() == 1;
         } catch (SQLException e) {
             System.err.println("Database error updating car images: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } finally {
+            CACHE.invalidate(carId);
         }
     }
 
@@ -359,26 +402,11 @@ public class CarDAO {
      */
     public List<Car> getAllCarsWithImages() {
         List<Car> cars = new ArrayList<>();
-        String sql = "SELECT * FROM cars ORDER BY make, model";
+        String sql = "SELECT " + columns(Projection.DETAIL) + " FROM cars ORDER BY make, model";
 
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-
-            rs.getMetaData(); // Force metadata initialization
-
-            // Check column existence
-            boolean hasKmDrivenColumn = columnExists(rs, "total_km_driven");
-            boolean hasImageColumns = checkImageColumnsExist(conn);
-
-            System.out.println("CarDAO: Loading cars with images - KM column: " + hasKmDrivenColumn + ", Image columns: " + hasImageColumns);
-
-            while (rs.next()) {
-                try {
-                    Car car = loadCarWithImages(rs, hasKmDrivenColumn, hasImageColumns);
-                    cars.add(car);
-                } catch (SQLException ex) {
-                    System.err.println("CarDAO: Error loading car data: " + ex.getMessage());
-                }
-            }
+            // Optional km/image columns are resolved once per result set by the shared mapper
+            cars.addAll(RowMappers.CAR.mapAll(rs));
 
             System.out.println("CarDAO: Loaded " + cars.size() + " cars with image data");
         } catch (SQLException e) {
@@ -390,19 +418,21 @@ public class CarDAO {
     }
 
     /**
-     * Helper method to check if a column exists in the result set
+     * Builds the explicit SELECT list for a projection. Optional columns are
+     * only named when the cached schema probe says they exist.
      */
-    private boolean columnExists(ResultSet rs, String columnName) {
-        try {
-            ResultSetMetaData metaData = rs.getMetaData();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                if (columnName.equalsIgnoreCase(metaData.getColumnName(i))) {
-                    return true;
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error checking column existence: " + e.getMessage());
+    static String columns(Projection projection) {
+        SchemaCapabilities caps = SchemaCapabilities.get();
+        StringBuilder cols = new StringBuilder("id, make, model, year, license_plate, status, price_per_day");
+        if (caps.carsHaveKmDriven()) {
+            cols.append(", total_km_driven");
+        }
+        if (projection != Projection.SUMMARY) {
+            cols.append(", specs");
+        }
+        if (projection == Projection.DETAIL && caps.carsHaveImageColumns()) {
+            cols.append(", exterior_images, interior_images");
         }
-        return false;
+        return cols.toString();
     }
 }
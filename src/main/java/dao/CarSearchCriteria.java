@@ -0,0 +1,81 @@
+package dao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filters for a fleet-wide availability search. Dates are required; every
+ * other field is optional and ignored when null.
+ */
+public class CarSearchCriteria {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String make;
+    private BigDecimal minPricePerDay;
+    private BigDecimal maxPricePerDay;
+    private Integer minYear;
+    private Integer maxYear;
+
+    public CarSearchCriteria(LocalDate startDate, LocalDate endDate) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Getters and setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getMake() {
+        return make;
+    }
+
+    public void setMake(String make) {
+        this.make = make;
+    }
+
+    public BigDecimal getMinPricePerDay() {
+        return minPricePerDay;
+    }
+
+    public void setMinPricePerDay(BigDecimal minPricePerDay) {
+        this.minPricePerDay = minPricePerDay;
+    }
+
+    public BigDecimal getMaxPricePerDay() {
+        return maxPricePerDay;
+    }
+
+    public void setMaxPricePerDay(BigDecimal maxPricePerDay) {
+        this.maxPricePerDay = maxPricePerDay;
+    }
+
+    public Integer getMinYear() {
+        return minYear;
+    }
+
+    public void setMinYear(Integer minYear) {
+        this.minYear = minYear;
+    }
+
+    public Integer getMaxYear() {
+        return maxYear;
+    }
+
+    public void setMaxYear(Integer maxYear) {
+        this.maxYear = maxYear;
+    }
+}
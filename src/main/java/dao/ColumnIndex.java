@@ -0,0 +1,45 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column label to 1-based index lookup for a single result set. Built once
+ * from the (client-side) result set metadata when a mapper is bound.
+ */
+final class ColumnIndex {
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    ColumnIndex(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            // First occurrence wins, matching ResultSet.findColumn semantics
+            indexes.putIfAbsent(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    /**
+     * Index of a column the query must select.
+     */
+    int require(String label) throws SQLException {
+        Integer idx = indexes.get(label.toLowerCase(Locale.ROOT));
+        if (idx == null) {
+            throw new SQLException("Column '" + label + "' not found in result set");
+        }
+        return idx;
+    }
+
+    /**
+     * Index of an optional column, or 0 when the result set does not have it
+     * (older schema or a narrower projection).
+     */
+    int optional(String label) {
+        Integer idx = indexes.get(label.toLowerCase(Locale.ROOT));
+        return idx != null ? idx : 0;
+    }
+}
@@ -0,0 +1,86 @@
+package dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import utils.DatabaseConnection;
+
+/**
+ * Bounded cache of recently verified logins, keyed by username.
+ *
+ * After a password has been checked against the database hash, that
+ * stored hash and an HMAC of the password under a random per-process key
+ * are kept for cache.credentials.ttlSeconds. A repeated login that presents
+ * the same password while the row still holds the same hash skips the
+ * (deliberately slow) password hash. Because the stored hash is compared on
+ * every hit, a reset or deletion from another client takes effect on the
+ * next login. A wrong password is never answered from here.
+ */
+class CredentialCache {
+
+    private final Cache<String, Entry> cache;
+    private final SecretKeySpec key;
+
+    CredentialCache(long defaultMaxSize, long defaultTtlSeconds) {
+        long maxSize = DatabaseConnection.getLongProperty("cache.credentials.maxSize", defaultMaxSize);
+        long ttlSeconds = DatabaseConnection.getLongProperty("cache.credentials.ttlSeconds", defaultTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+    }
+
+    /**
+     * True when this password was verified earlier against exactly
+     * {@code storedHash}, the value currently in the users row.
+     */
+    boolean matches(String username, String password, String storedHash) {
+        Entry entry = cache.getIfPresent(username);
+        if (entry == null || storedHash == null || !entry.storedHash.equals(storedHash)) {
+            return false;
+        }
+        byte[] proof = proof(password);
+        return proof != null && MessageDigest.isEqual(entry.proof, proof);
+    }
+
+    void put(String username, String password, String storedHash) {
+        byte[] proof = proof(password);
+        if (proof != null && storedHash != null) {
+            cache.put(username, new Entry(storedHash, proof));
+        }
+    }
+
+    void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    private byte[] proof(String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            System.err.println("Credential cache disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        final String storedHash;
+        final byte[] proof;
+
+        Entry(String storedHash, byte[] proof) {
+            this.storedHash = storedHash;
+            this.proof = proof;
+        }
+    }
+}
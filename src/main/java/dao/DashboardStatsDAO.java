@@ -0,0 +1,53 @@
+package dao;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import models.DashboardStats;
+import utils.DatabaseConnection;
+
+/**
+ * Computes the admin dashboard counters in a single aggregate query so the
+ * refresh cost does not grow with the number of users, cars or bookings
+ * loaded into memory.
+ */
+public class DashboardStatsDAO {
+
+    // Status sets match the ones the dashboard and BookingDAO.getTotalRevenue use
+    private static final String STATS_SQL = "SELECT "
+            + "(SELECT COUNT(*) FROM users) AS total_users, "
+            + "c.total_cars, c.available_cars, "
+            + "b.active_bookings, b.pending_bookings, b.total_revenue "
+            + "FROM (SELECT COUNT(*) AS total_cars, "
+            + "COALESCE(SUM(status = 'available'), 0) AS available_cars FROM cars) c "
+            + "CROSS JOIN (SELECT "
+            + "COALESCE(SUM(status IN ('active', 'approved')), 0) AS active_bookings, "
+            + "COALESCE(SUM(status = 'pending'), 0) AS pending_bookings, "
+            + "COALESCE(SUM(CASE WHEN status IN ('approved', 'confirmed', 'active', 'completed') THEN total_price ELSE 0 END), 0) AS total_revenue "
+            + "FROM bookings) b";
+
+    /**
+     * Returns current dashboard counters, or null if the query fails.
+     */
+    public DashboardStats getStats() {
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(STATS_SQL); ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                BigDecimal revenue = rs.getBigDecimal(6);
+                return new DashboardStats(
+                        rs.getInt(1),
+                        rs.getInt(2),
+                        rs.getInt(3),
+                        rs.getInt(4),
+                        rs.getInt(5),
+                        revenue != null ? revenue : BigDecimal.ZERO
+                );
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error loading dashboard stats: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
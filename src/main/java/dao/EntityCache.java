@@ -0,0 +1,68 @@
+package dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import utils.DatabaseConnection;
+
+/**
+ * Read-through cache of entities by id, bounded in size and age (Caffeine).
+ *
+ * DAOs keep one static instance per entity so every DAO object shares it,
+ * and must invalidate an id whenever they write that row. Bounds come from
+ * cache.&lt;name&gt;.maxSize and cache.&lt;name&gt;.ttlSeconds in
+ * config/db.properties. Missing rows (null) are not cached.
+ *
+ * Entities are mutable, so the cache keeps its own instance and
+ * {@link #get} returns a copy: a caller editing the result cannot change
+ * what other readers see before the DAO has saved it.
+ */
+public class EntityCache<V> {
+
+    private final String name;
+    private final Cache<Integer, V> cache;
+    private final UnaryOperator<V> copier;
+
+    public EntityCache(String name, long defaultMaxSize, long defaultTtlSeconds, UnaryOperator<V> copier) {
+        this.name = name;
+        this.copier = copier;
+        long maxSize = DatabaseConnection.getLongProperty("cache." + name + ".maxSize", defaultMaxSize);
+        long ttlSeconds = DatabaseConnection.getLongProperty("cache." + name + ".ttlSeconds", defaultTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a copy of the cached entity, loading it on a miss. Concurrent
+     * misses for the same id share one load.
+     */
+    public V get(int id, Function<Integer, V> loader) {
+        V value = cache.get(id, loader);
+        return value != null ? copier.apply(value) : null;
+    }
+
+    public void invalidate(int id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public String toString() {
+        CacheStats s = cache.stats();
+        return String.format("%s cache: size=%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d",
+                name, cache.estimatedSize(), s.hitCount(), s.missCount(), s.hitRate() * 100, s.evictionCount());
+    }
+}
@@ -0,0 +1,32 @@
+package dao;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final PageCursor next;
+
+    public Page(List<T> items, PageCursor next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Cursor for the following page, or null if this is the last one.
+     */
+    public PageCursor getNext() {
+        return next;
+    }
+
+    public boolean hasMore() {
+        return next != null;
+    }
+}
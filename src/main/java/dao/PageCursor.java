@@ -0,0 +1,54 @@
+package dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position in a listing ordered by (created_at DESC, id DESC): the
+ * key of the last row of the previous page. The next page is everything
+ * strictly after it, found by an index range scan instead of an OFFSET.
+ */
+public final class PageCursor {
+
+    private final LocalDateTime createdAt;
+    private final int id;
+
+    private PageCursor(LocalDateTime createdAt, int id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static PageCursor after(LocalDateTime createdAt, int id) {
+        return new PageCursor(createdAt, id);
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * WHERE condition selecting rows after this cursor; bind with
+     * {@link #bind}. {@code alias} is the table alias prefix, e.g. "b." or "".
+     */
+    static String condition(String alias) {
+        return "(" + alias + "created_at < ? OR (" + alias + "created_at = ? AND " + alias + "id < ?))";
+    }
+
+    /**
+     * Binds the three {@link #condition} parameters starting at {@code index}
+     * and returns the next free index.
+     */
+    int bind(PreparedStatement stmt, int index) throws SQLException {
+        Timestamp ts = Timestamp.valueOf(createdAt);
+        stmt.setTimestamp(index, ts);
+        stmt.setTimestamp(index + 1, ts);
+        stmt.setInt(index + 2, id);
+        return index + 3;
+    }
+}
@@ -0,0 +1,26 @@
+package dao;
+
+/**
+ * How many columns a listing query selects.
+ *
+ * Narrow projections leave the unselected model fields at their defaults
+ * (null / empty lists), so objects loaded with them are for display and
+ * counting only and must not be passed back to an update method.
+ */
+public enum Projection {
+
+    /**
+     * Identity, status, price and mileage only. For stats and admin tables.
+     */
+    SUMMARY,
+
+    /**
+     * SUMMARY plus short descriptive text (car specs). For browse tables.
+     */
+    LISTING,
+
+    /**
+     * Every column, including the JSON image lists.
+     */
+    DETAIL
+}
@@ -0,0 +1,44 @@
+package dao;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Lets the caller cancel a running search query from another thread, e.g.
+ * when the user has typed further and the result is no longer wanted.
+ * {@link #cancel()} calls {@link Statement#cancel()}, which makes MySQL
+ * abort the query on the server instead of letting it run to completion.
+ *
+ * One handle per query; a cancelled handle refuses to start a new one.
+ */
+public class QueryHandle {
+
+    private Statement statement;
+    private boolean cancelled;
+
+    public synchronized void cancel() {
+        cancelled = true;
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                System.err.println("Could not cancel query: " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    synchronized void attach(Statement stmt) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Query cancelled");
+        }
+        statement = stmt;
+    }
+
+    synchronized void detach() {
+        statement = null;
+    }
+}
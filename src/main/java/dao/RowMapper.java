@@ -0,0 +1,54 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps JDBC rows to model objects.
+ *
+ * Column positions are resolved once per {@link ResultSet} by
+ * {@link #bind(ResultSet)}; the returned {@link Bound} reader then pulls
+ * every row by index instead of doing a name lookup per column per row.
+ * Mappers are stateless, so one shared instance per model is enough (see
+ * {@link RowMappers}).
+ */
+public interface RowMapper<T> {
+
+    /**
+     * Resolves the column indexes this mapper needs for the given result set.
+     */
+    Bound<T> bind(ResultSet rs) throws SQLException;
+
+    /**
+     * Maps every remaining row of the result set.
+     */
+    default List<T> mapAll(ResultSet rs) throws SQLException {
+        List<T> out = new ArrayList<>();
+        Bound<T> reader = bind(rs);
+        while (rs.next()) {
+            out.add(reader.read(rs));
+        }
+        return out;
+    }
+
+    /**
+     * Maps the next row, or returns null when the result set is exhausted.
+     */
+    default T mapOne(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return null;
+        }
+        return bind(rs).read(rs);
+    }
+
+    /**
+     * A mapper bound to the column layout of one result set.
+     */
+    @FunctionalInterface
+    interface Bound<T> {
+
+        T read(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,186 @@
+package dao;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import models.Booking;
+import models.BookingView;
+import models.Car;
+import models.User;
+import models.UserSession;
+
+/**
+ * Shared row mappers, one per model. Each resolves its column indexes once
+ * per result set and then maps rows by position.
+ */
+public final class RowMappers {
+
+    /**
+     * Maps cars. total_km_driven and the image columns are optional so the
+     * same mapper serves older schemas and narrow projections.
+     */
+    public static final RowMapper<Car> CAR = rs -> {
+        ColumnIndex cols = new ColumnIndex(rs);
+        int id = cols.require("id");
+        int make = cols.require("make");
+        int model = cols.require("model");
+        int year = cols.require("year");
+        int plate = cols.require("license_plate");
+        int status = cols.require("status");
+        int specs = cols.optional("specs");
+        int price = cols.require("price_per_day");
+        int km = cols.optional("total_km_driven");
+        int exterior = cols.optional("exterior_images");
+        int interior = cols.optional("interior_images");
+        return row -> {
+            Car car = new Car(
+                    row.getInt(id),
+                    row.getString(make),
+                    row.getString(model),
+                    row.getInt(year),
+                    row.getString(plate),
+                    row.getString(status),
+                    specs > 0 ? row.getString(specs) : null,
+                    row.getBigDecimal(price),
+                    km > 0 ? row.getInt(km) : 0
+            );
+            if (exterior > 0) {
+                car.setExteriorImages(jsonToList(row.getString(exterior)));
+            }
+            if (interior > 0) {
+                car.setInteriorImages(jsonToList(row.getString(interior)));
+            }
+            return car;
+        };
+    };
+
+    /**
+     * Maps bookings. Dates are optional to support the SUMMARY projection.
+     */
+    public static final RowMapper<Booking> BOOKING = rs -> {
+        ColumnIndex cols = new ColumnIndex(rs);
+        int id = cols.require("id");
+        int userId = cols.require("user_id");
+        int carId = cols.require("car_id");
+        int start = cols.optional("start_date");
+        int end = cols.optional("end_date");
+        int status = cols.require("status");
+        int total = cols.require("total_price");
+        int created = cols.optional("created_at");
+        return row -> new Booking(
+                row.getInt(id),
+                row.getInt(userId),
+                row.getInt(carId),
+                start > 0 ? toLocalDate(row.getDate(start)) : null,
+                end > 0 ? toLocalDate(row.getDate(end)) : null,
+                row.getString(status),
+                row.getBigDecimal(total),
+                created > 0 ? toLocalDateTime(row.getTimestamp(created)) : null
+        );
+    };
+
+    /**
+     * Maps a booking joined with users.username and cars.make/model/year.
+     * The joined columns are null/0 when the user or car row is gone.
+     */
+    public static final RowMapper<BookingView> BOOKING_VIEW = rs -> {
+        RowMapper.Bound<Booking> booking = BOOKING.bind(rs);
+        ColumnIndex cols = new ColumnIndex(rs);
+        int username = cols.require("username");
+        int make = cols.require("car_make");
+        int model = cols.require("car_model");
+        int year = cols.require("car_year");
+        return row -> new BookingView(
+                booking.read(row),
+                row.getString(username),
+                row.getString(make),
+                row.getString(model),
+                row.getInt(year)
+        );
+    };
+
+    public static final RowMapper<User> USER = rs -> {
+        ColumnIndex cols = new ColumnIndex(rs);
+        int id = cols.require("id");
+        int username = cols.require("username");
+        int hash = cols.require("password_hash");
+        int role = cols.require("role");
+        int org = cols.optional("organization");
+        int created = cols.require("created_at");
+        return row -> new User(
+                row.getInt(id),
+                row.getString(username),
+                row.getString(hash),
+                row.getString(role),
+                org > 0 ? row.getString(org) : null,
+                toLocalDateTime(row.getTimestamp(created))
+        );
+    };
+
+    public static final RowMapper<UserSession> USER_SESSION = rs -> {
+        ColumnIndex cols = new ColumnIndex(rs);
+        int id = cols.require("id");
+        int userId = cols.require("user_id");
+        int token = cols.require("session_token");
+        int created = cols.require("created_at");
+        int accessed = cols.require("last_accessed");
+        int active = cols.require("is_active");
+        return row -> new UserSession(
+                row.getInt(id),
+                row.getInt(userId),
+                row.getString(token),
+                toLocalDateTime(row.getTimestamp(created)),
+                toLocalDateTime(row.getTimestamp(accessed)),
+                row.getBoolean(active)
+        );
+    };
+
+    private RowMappers() {
+    }
+
+    static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+
+    /**
+     * Converts JSON string from database to list of image paths
+     */
+    static List<String> jsonToList(String json) {
+        List<String> imagePaths = new ArrayList<>();
+        if (json == null || json.trim().isEmpty() || "[]".equals(json.trim())) {
+            return imagePaths;
+        }
+
+        try {
+            // Simple JSON parsing for array of strings
+            String cleanJson = json.trim();
+            if (cleanJson.startsWith("[") && cleanJson.endsWith("]")) {
+                cleanJson = cleanJson.substring(1, cleanJson.length() - 1);
+                if (!cleanJson.trim().isEmpty()) {
+                    String[] parts = cleanJson.split(",");
+                    for (String part : parts) {
+                        String path = part.trim();
+                        if (path.startsWith("\"") && path.endsWith("\"")) {
+                            path = path.substring(1, path.length() - 1);
+                            path = path.replace("\\\"", "\"");
+                            imagePaths.add(path);
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error parsing JSON image paths: " + e.getMessage());
+        }
+
+        return imagePaths;
+    }
+}
@@ -0,0 +1,49 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns a search box string into prefix LIKE patterns. Every word must
+ * match the start of one of the searched columns; patterns never start
+ * with a wildcard, so MySQL can answer each one from a B-tree index.
+ */
+final class SearchTerms {
+
+    // More words only narrow the result further and lengthen the SQL
+    private static final int MAX_TERMS = 5;
+
+    private SearchTerms() {
+    }
+
+    static List<String> words(String query) {
+        List<String> words = new ArrayList<>();
+        if (query != null) {
+            for (String w : query.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+                if (!w.isEmpty() && words.size() < MAX_TERMS) {
+                    words.add(w);
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * LIKE pattern matching values that start with the word.
+     */
+    static String prefix(String word) {
+        return word.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    static boolean isYear(String word) {
+        return word.length() == 4 && word.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * True when the query failed because its handle cancelled it.
+     */
+    static boolean cancelled(QueryHandle handle) {
+        return handle != null && handle.isCancelled();
+    }
+}
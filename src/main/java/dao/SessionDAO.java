@@ -2,6 +2,7 @@ package dao;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 import models.UserSession;
 import utils.DatabaseConnection;
@@ -35,21 +36,16 @@ public class SessionDAO {
         return null;
     }
 
+    /**
+     * Most recently used active session. Fallback for restores without a
+     * saved token; idx_sessions_active_accessed (is_active, last_accessed)
+     * lets MySQL read the one row from the end of the index instead of
+     * sorting every active session.
+     */
     public UserSession getActiveSession() {
         String sql = "SELECT * FROM user_sessions WHERE is_active = TRUE ORDER BY last_accessed DESC LIMIT 1";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-            // Force metadata initialization to avoid NPE in some driver versions
-            rs.getMetaData();
-            if (rs.next()) {
-                return new UserSession(
-                        rs.getInt("id"),
-                        rs.getInt("user_id"),
-                        rs.getString("session_token"),
-                        rs.getTimestamp("created_at").toLocalDateTime(),
-                        rs.getTimestamp("last_accessed").toLocalDateTime(),
-                        rs.getBoolean("is_active")
-                );
-            }
+            return RowMappers.USER_SESSION.mapOne(rs);
         } catch (SQLException e) {
             System.err.println("Database error getting active session: " + e.getMessage());
             e.printStackTrace();
@@ -62,18 +58,7 @@ public class SessionDAO {
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, sessionToken);
             try (ResultSet rs = stmt.executeQuery()) {
-                // Force metadata initialization to avoid NPE in some driver versions
-                rs.getMetaData();
-                if (rs.next()) {
-                    return new UserSession(
-                            rs.getInt("id"),
-                            rs.getInt("user_id"),
-                            rs.getString("session_token"),
-                            rs.getTimestamp("created_at").toLocalDateTime(),
-                            rs.getTimestamp("last_accessed").toLocalDateTime(),
-                            rs.getBoolean("is_active")
-                    );
-                }
+                return RowMappers.USER_SESSION.mapOne(rs);
             }
         } catch (SQLException e) {
             System.err.println("Database error getting session by token: " + e.getMessage());
@@ -97,6 +82,34 @@ public class SessionDAO {
         return false;
     }
 
+    /**
+     * Writes buffered last_accessed times for many sessions in one batched
+     * UPDATE and one commit.
+     *
+     * @return false if the batch failed and nothing was written
+     */
+    public boolean updateSessionAccessBatch(Map<String, LocalDateTime> accessTimes) {
+        if (accessTimes.isEmpty()) {
+            return true;
+        }
+        String sql = "UPDATE user_sessions SET last_accessed = ? WHERE session_token = ? AND is_active = TRUE";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (Map.Entry<String, LocalDateTime> e : accessTimes.entrySet()) {
+                stmt.setTimestamp(1, Timestamp.valueOf(e.getValue()));
+                stmt.setString(2, e.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Database error updating session access batch: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
     public boolean deactivateSession(String sessionToken) {
         String sql = "UPDATE user_sessions SET is_active = FALSE WHERE session_token = ?";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -123,18 +136,37 @@ public class SessionDAO {
         return false;
     }
 
-    public void cleanupExpiredSessions() {
-        // Remove sessions older than 30 days
-        String sql = "DELETE FROM user_sessions WHERE created_at < DATE_SUB(NOW(), INTERVAL 30 DAY)";
-        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Deletes up to {@code limit} sessions created more than 30 days ago
+     * (range scan on idx_sessions_created).
+     *
+     * @return rows deleted, or -1 on error
+     */
+    public int deleteExpiredChunk(int limit) {
+        String sql = "DELETE FROM user_sessions WHERE created_at < DATE_SUB(NOW(), INTERVAL 30 DAY) LIMIT ?";
+        return deleteChunk(sql, limit, "expired");
+    }
 
-            int deleted = stmt.executeUpdate();
-            if (deleted > 0) {
-                System.out.println("Cleaned up " + deleted + " expired sessions");
-            }
+    /**
+     * Deletes up to {@code limit} logged-out sessions not used for
+     * {@code retentionDays} days (range scan on idx_sessions_active_accessed).
+     *
+     * @return rows deleted, or -1 on error
+     */
+    public int deleteInactiveChunk(int retentionDays, int limit) {
+        String sql = "DELETE FROM user_sessions WHERE is_active = FALSE AND last_accessed < DATE_SUB(NOW(), INTERVAL "
+                + Math.max(retentionDays, 0) + " DAY) LIMIT ?";
+        return deleteChunk(sql, limit, "inactive");
+    }
+
+    private int deleteChunk(String sql, int limit, String kind) {
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, limit);
+            return stmt.executeUpdate();
         } catch (SQLException e) {
-            System.err.println("Database error cleaning up sessions: " + e.getMessage());
+            System.err.println("Database error deleting " + kind + " sessions: " + e.getMessage());
             e.printStackTrace();
         }
+        return -1;
     }
 }
@@ -4,23 +4,38 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import models.User;
 import utils.DatabaseConnection;
 import utils.PasswordHasher;
 
 public class UserDAO {
 
+    // getById read-through cache, shared by all UserDAO instances
+    private static final EntityCache<User> CACHE = new EntityCache<>("users", 1000, 60, User::new);
+
+    // Recently verified logins by username; a hit still requires the stored hash to be unchanged
+    private static final CredentialCache CREDENTIALS = new CredentialCache(1000, 300);
+
+    // Columns RowMappers.USER reads (login, page and search queries)
+    private static final String USER_COLUMNS = "id, username, password_hash, role, organization, created_at";
+
     public boolean deleteUser(int id) {
         String sql = "DELETE FROM users WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
-            int affected = stmt.executeUpdate();
-            return affected == 1;
+            return stmt.executeUpdate() == 1;
         } catch (SQLException e) {
             System.err.println("Database error deleting user: " + e.getMessage());
             e.printStackTrace();
             return false;
+        } finally {
+            CACHE.invalidate(id);
         }
     }
 
@@ -45,18 +60,11 @@ public class UserDAO {
             return false;
         }
 
-        // Check if username already exists
-        if (usernameExists(username)) {
-            lastError = "Username already exists";
-            return false;
-        }
-
-        String salt = PasswordHasher.generateSalt();
-        String hash = PasswordHasher.hash(password, salt);
+        String hash = PasswordHasher.encode(password);
         String sql = "INSERT INTO users (username, password_hash, role, organization, created_at) VALUES (?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, username.trim());
-            stmt.setString(2, hash + ":" + salt);
+            stmt.setString(2, hash);
             stmt.setString(3, role);
             stmt.setString(4, organization != null ? organization.trim() : null);
             stmt.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
@@ -68,6 +76,11 @@ public class UserDAO {
             }
             return result;
         } catch (SQLException e) {
+            // Insert-first: the UNIQUE constraint on username does the existence check
+            if (isDuplicateKey(e)) {
+                lastError = "Username already exists";
+                return false;
+            }
             lastError = "Database error during registration: " + e.getMessage();
             System.err.println("Database error during registration: " + e.getMessage());
             e.printStackTrace();
@@ -80,39 +93,110 @@ public class UserDAO {
         return register(username, password, role, null);
     }
 
-    private boolean usernameExists(String username) {
-        String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
-        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, username.trim());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
+    /**
+     * Inserts already-hashed users with one batched INSERT IGNORE in a single
+     * transaction. Usernames that already exist are skipped by the UNIQUE
+     * constraint.
+     *
+     * @return per user, whether it was inserted; null if the batch failed
+     */
+    public boolean[] insertUsersBatch(List<User> users) {
+        boolean[] inserted = new boolean[users.size()];
+        if (users.isEmpty()) {
+            return inserted;
+        }
+        String sql = "INSERT IGNORE INTO users (username, password_hash, role, organization, created_at) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            int[] counts;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (User user : users) {
+                    stmt.setString(1, user.getUsername());
+                    stmt.setString(2, user.getPasswordHash());
+                    stmt.setString(3, user.getRole());
+                    stmt.setString(4, user.getOrganization());
+                    stmt.setTimestamp(5, now);
+                    stmt.addBatch();
+                }
+                counts = stmt.executeBatch();
             }
+            boolean known = true;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                    known = false;
+                }
+                inserted[i] = counts[i] > 0;
+            }
+            if (!known) {
+                // A rewritten multi-row INSERT reports no per-row counts; our
+                // freshly salted hash is in the row only if we inserted it
+                Map<String, String> stored = passwordHashes(conn, users);
+                for (int i = 0; i < inserted.length; i++) {
+                    User user = users.get(i);
+                    inserted[i] = user.getPasswordHash().equals(stored.get(user.getUsername()));
+                }
+            }
+            conn.commit();
+            return inserted;
         } catch (SQLException e) {
-            System.err.println("Database error checking username: " + e.getMessage());
+            System.err.println("Database error importing users: " + e.getMessage());
             e.printStackTrace();
+            return null;
         }
-        return false;
+    }
+
+    private Map<String, String> passwordHashes(Connection conn, List<User> users) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT username, password_hash FROM users WHERE username IN (");
+        for (int i = 0; i < users.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        Map<String, String> hashes = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < users.size(); i++) {
+                stmt.setString(i + 1, users.get(i).getUsername());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    hashes.put(rs.getString(1), rs.getString(2));
+                }
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * True for a unique/primary key violation (MySQL error 1062).
+     */
+    static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == 1062;
     }
 
     public User login(String username, String password) {
-        String sql = "SELECT * FROM users WHERE username = ?";
+        if (password == null) {
+            lastError = "Invalid username or password";
+            return null;
+        }
+        String sql = "SELECT " + USER_COLUMNS + " FROM users WHERE username = ?";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                String[] hashSalt = rs.getString("password_hash").split(":");
-                String hash = hashSalt[0];
-                String salt = hashSalt[1];
-                if (PasswordHasher.hash(password, salt).equals(hash)) {
-                    return new User(
-                            rs.getInt("id"),
-                            rs.getString("username"),
-                            rs.getString("password_hash"),
-                            rs.getString("role"),
-                            rs.getString("organization"),
-                            rs.getTimestamp("created_at").toLocalDateTime()
-                    );
+            try (ResultSet rs = stmt.executeQuery()) {
+                User user = RowMappers.USER.mapOne(rs);
+                if (user == null) {
+                    lastError = "Invalid username or password";
+                    return null;
+                }
+                // Same password against the same stored hash as a recent login: skip the slow hash
+                if (CREDENTIALS.matches(username, password, user.getPasswordHash())) {
+                    return user;
+                }
+                if (PasswordHasher.verify(password, user.getPasswordHash())) {
+                    if (PasswordHasher.needsRehash(user.getPasswordHash())) {
+                        upgradePasswordHash(conn, user, password);
+                    }
+                    CREDENTIALS.put(username, password, user.getPasswordHash());
+                    return user;
                 }
             }
         } catch (SQLException e) {
@@ -123,20 +207,44 @@ public class UserDAO {
         return null;
     }
 
+    /**
+     * Re-encodes a legacy or under-cost hash with the current scheme. The
+     * update is conditional on the old value so a concurrent reset wins.
+     */
+    private void upgradePasswordHash(Connection conn, User user, String password) {
+        String upgraded = PasswordHasher.encode(password);
+        String sql = "UPDATE users SET password_hash = ? WHERE id = ? AND password_hash = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, upgraded);
+            stmt.setInt(2, user.getId());
+            stmt.setString(3, user.getPasswordHash());
+            if (stmt.executeUpdate() == 1) {
+                user.setPasswordHash(upgraded);
+                CACHE.invalidate(user.getId());
+            }
+        } catch (SQLException e) {
+            // Login still succeeds; the upgrade is retried next time
+            System.err.println("Database error upgrading password hash: " + e.getMessage());
+        }
+    }
+
     public User getById(int id) {
+        return CACHE.get(id, this::loadById);
+    }
+
+    /**
+     * Hit/miss/eviction counters of the getById cache.
+     */
+    public static EntityCache<User> cache() {
+        return CACHE;
+    }
+
+    private User loadById(int id) {
         String sql = "SELECT * FROM users WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("password_hash"),
-                        rs.getString("role"),
-                        rs.getString("organization"),
-                        rs.getTimestamp("created_at").toLocalDateTime()
-                );
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.USER.mapOne(rs);
             }
         } catch (SQLException e) {
             lastError = "Database error retrieving user: " + e.getMessage();
@@ -145,20 +253,11 @@ public class UserDAO {
         return null;
     }
 
-    public java.util.List<User> getAllUsers() {
-        java.util.List<User> users = new java.util.ArrayList<>();
+    public List<User> getAllUsers() {
+        List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM users ORDER BY created_at DESC";
-        try (Connection conn = utils.DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                users.add(new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("password_hash"),
-                        rs.getString("role"),
-                        rs.getString("organization"),
-                        rs.getTimestamp("created_at").toLocalDateTime()
-                ));
-            }
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            users.addAll(RowMappers.USER.mapAll(rs));
         } catch (SQLException e) {
             System.err.println("Database error getting users: " + e.getMessage());
             e.printStackTrace();
@@ -166,6 +265,92 @@ public class UserDAO {
         return users;
     }
 
+    /**
+     * Keyset-paginated getAllUsers: up to {@code limit} users after
+     * {@code after} (null for the first page), newest first.
+     */
+    public Page<User> getUsersPage(PageCursor after, int limit) {
+        String sql = "SELECT " + USER_COLUMNS + " FROM users"
+                + (after != null ? " WHERE " + PageCursor.condition("") : "")
+                + " ORDER BY created_at DESC, id DESC LIMIT ?";
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int idx = after != null ? after.bind(stmt, 1) : 1;
+            stmt.setInt(idx, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<User> users = RowMappers.USER.mapAll(rs);
+                if (users.size() <= limit) {
+                    return new Page<>(users, null);
+                }
+                users = new ArrayList<>(users.subList(0, limit));
+                User last = users.get(limit - 1);
+                // Rows without created_at sort last and cannot be keyed past; stop there
+                return new Page<>(users, last.getCreatedAt() != null ? PageCursor.after(last.getCreatedAt(), last.getId()) : null);
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error getting users page: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new Page<>(new ArrayList<>(), null);
+    }
+
+    /**
+     * Keyset-paginated server-side user search: every word must
+     * prefix-match the username, organization or role. Same order and cursor as
+     * getUsersPage, so result pages can be scrolled the same way.
+     *
+     * @param handle optional, to cancel the query from another thread
+     */
+    public Page<User> searchUsersPage(String query, PageCursor after, int limit, QueryHandle handle) {
+        List<String> words = SearchTerms.words(query);
+        if (words.isEmpty()) {
+            return getUsersPage(after, limit);
+        }
+        StringBuilder sql = new StringBuilder("SELECT " + USER_COLUMNS + " FROM users WHERE 1 = 1");
+        for (int i = 0; i < words.size(); i++) {
+            sql.append(" AND (username LIKE ? OR organization LIKE ? OR role LIKE ?)");
+        }
+        if (after != null) {
+            sql.append(" AND ").append(PageCursor.condition(""));
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+
+        try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int idx = 1;
+            for (String word : words) {
+                String pattern = SearchTerms.prefix(word);
+                stmt.setString(idx++, pattern);
+                stmt.setString(idx++, pattern);
+                stmt.setString(idx++, pattern);
+            }
+            if (after != null) {
+                idx = after.bind(stmt, idx);
+            }
+            stmt.setInt(idx, limit + 1);
+            if (handle != null) {
+                handle.attach(stmt);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<User> users = RowMappers.USER.mapAll(rs);
+                if (users.size() <= limit) {
+                    return new Page<>(users, null);
+                }
+                users = new ArrayList<>(users.subList(0, limit));
+                User last = users.get(limit - 1);
+                return new Page<>(users, last.getCreatedAt() != null ? PageCursor.after(last.getCreatedAt(), last.getId()) : null);
+            } finally {
+                if (handle != null) {
+                    handle.detach();
+                }
+            }
+        } catch (SQLException e) {
+            if (!SearchTerms.cancelled(handle)) {
+                System.err.println("Database error searching users: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return new Page<>(new ArrayList<>(), null);
+    }
+
     /**
      * Resets password for the given username by generating a new salt and hash.
      * Returns false if username doesn't exist.
@@ -182,6 +367,7 @@ public class UserDAO {
 
         // Ensure user exists
         String checkSql = "SELECT id FROM users WHERE username = ?";
+        int userId;
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement check = conn.prepareStatement(checkSql)) {
             check.setString(1, username.trim());
             ResultSet rs = check.executeQuery();
@@ -189,19 +375,18 @@ public class UserDAO {
                 lastError = "User not found";
                 return false;
             }
+            userId = rs.getInt(1);
         } catch (SQLException e) {
             lastError = "Database error checking user: " + e.getMessage();
             return false;
         }
 
-        String salt = PasswordHasher.generateSalt();
-        String hash = PasswordHasher.hash(newPassword, salt);
+        String hash = PasswordHasher.encode(newPassword);
         String updateSql = "UPDATE users SET password_hash = ? WHERE username = ?";
         try (Connection conn = DatabaseConnection.getConnection(); PreparedStatement upd = conn.prepareStatement(updateSql)) {
-            upd.setString(1, hash + ":" + salt);
+            upd.setString(1, hash);
             upd.setString(2, username.trim());
-            int updated = upd.executeUpdate();
-            if (updated == 1) {
+            if (upd.executeUpdate() == 1) {
                 lastError = "";
                 return true;
             }
@@ -210,6 +395,10 @@ public class UserDAO {
         } catch (SQLException e) {
             lastError = "Database error during password reset: " + e.getMessage();
             return false;
+        } finally {
+            // Cached User carries the old password_hash, and the old password must stop working
+            CACHE.invalidate(userId);
+            CREDENTIALS.invalidate(username.trim());
         }
     }
 }
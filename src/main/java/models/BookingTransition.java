@@ -0,0 +1,22 @@
+package models;
+
+/**
+ * Result of a booking status transition: the booking and its car as they
+ * stand after the transaction committed.
+ */
+public class BookingTransition {
+    private final Booking booking;
+    private final Car car;
+
+    public BookingTransition(Booking booking, Car car) {
+        this.booking = booking;
+        this.car = car;
+    }
+
+    public Booking getBooking() { return booking; }
+
+    /**
+     * The booking's car, or null if the car row no longer exists.
+     */
+    public Car getCar() { return car; }
+}
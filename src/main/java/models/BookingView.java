@@ -0,0 +1,31 @@
+package models;
+
+/**
+ * A booking joined with the display fields of its user and car, loaded in a
+ * single query for table views.
+ */
+public class BookingView extends Booking {
+    private String username;
+    private String carMake;
+    private String carModel;
+    private int carYear;
+
+    public BookingView(Booking booking, String username, String carMake, String carModel, int carYear) {
+        super(booking.getId(), booking.getUserId(), booking.getCarId(), booking.getStartDate(), booking.getEndDate(),
+                booking.getStatus(), booking.getTotalPrice(), booking.getCreatedAt());
+        this.username = username;
+        this.carMake = carMake;
+        this.carModel = carModel;
+        this.carYear = carYear;
+    }
+
+    // Getters and setters
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public String getCarMake() { return carMake; }
+    public void setCarMake(String carMake) { this.carMake = carMake; }
+    public String getCarModel() { return carModel; }
+    public void setCarModel(String carModel) { this.carModel = carModel; }
+    public int getCarYear() { return carYear; }
+    public void setCarYear(int carYear) { this.carYear = carYear; }
+}
@@ -36,6 +36,15 @@ public class Car {
         this.interiorImages = new ArrayList<>();
     }
 
+    /**
+     * Copies another car, including its image lists.
+     */
+    public Car(Car other) {
+        this(other.id, other.make, other.model, other.year, other.licensePlate, other.status, other.specs, other.pricePerDay, other.totalKmDriven);
+        this.exteriorImages = new ArrayList<>(other.getExteriorImages());
+        this.interiorImages = new ArrayList<>(other.getInteriorImages());
+    }
+
     // Getters and setters
     public int getId() {
         return id;
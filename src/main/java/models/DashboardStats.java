@@ -0,0 +1,29 @@
+package models;
+
+import java.math.BigDecimal;
+
+public class DashboardStats {
+    private int totalUsers;
+    private int totalCars;
+    private int availableCars;
+    private int activeBookings;
+    private int pendingBookings;
+    private BigDecimal totalRevenue;
+
+    public DashboardStats(int totalUsers, int totalCars, int availableCars, int activeBookings, int pendingBookings, BigDecimal totalRevenue) {
+        this.totalUsers = totalUsers;
+        this.totalCars = totalCars;
+        this.availableCars = availableCars;
+        this.activeBookings = activeBookings;
+        this.pendingBookings = pendingBookings;
+        this.totalRevenue = totalRevenue;
+    }
+
+    // Getters
+    public int getTotalUsers() { return totalUsers; }
+    public int getTotalCars() { return totalCars; }
+    public int getAvailableCars() { return availableCars; }
+    public int getActiveBookings() { return activeBookings; }
+    public int getPendingBookings() { return pendingBookings; }
+    public BigDecimal getTotalRevenue() { return totalRevenue; }
+}
@@ -20,6 +20,13 @@ public class User {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Copies another user.
+     */
+    public User(User other) {
+        this(other.id, other.username, other.passwordHash, other.role, other.organization, other.createdAt);
+    }
+
     // Getters and setters
     public int getId() {
         return id;
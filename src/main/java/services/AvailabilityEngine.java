@@ -0,0 +1,352 @@
+package services;
+
+import dao.BookingDAO;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import models.Booking;
+
+/**
+ * In-memory index of the reservations that block a car (pending, confirmed,
+ * active, reserved), used to answer availability questions without a
+ * COUNT(*) overlap query per check.
+ *
+ * Each car's reservations are kept in an immutable array sorted by start
+ * date together with a running maximum of end dates. An overlap check is a
+ * binary search for the last reservation starting on or before the
+ * requested end, followed by one comparison against the running maximum,
+ * i.e. O(log n) per car with lock-free reads. Writes replace the car's
+ * arrays (copy-on-write), which is cheap for per-car booking volumes.
+ *
+ * This is a fast pre-check only: {@link BookingDAO#createBookingTransactional}
+ * still verifies availability under a row lock and remains the authority.
+ */
+public class AvailabilityEngine {
+
+    private static volatile AvailabilityEngine shared;
+
+    private final BookingDAO bookingDAO;
+    private final Map<Integer, CarIntervals> byCar = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile long prunedDay;
+
+    public AvailabilityEngine(BookingDAO bookingDAO) {
+        this.bookingDAO = bookingDAO;
+    }
+
+    /**
+     * Process-wide engine shared by all BookingService instances.
+     */
+    public static AvailabilityEngine shared() {
+        AvailabilityEngine engine = shared;
+        if (engine == null) {
+            synchronized (AvailabilityEngine.class) {
+                engine = shared;
+                if (engine == null) {
+                    engine = new AvailabilityEngine(new BookingDAO());
+                    shared = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Rebuilds the index from the bookings table. If the query fails the
+     * index stays unloaded and the next lookup tries again.
+     */
+    public synchronized void reload() {
+        List<Booking> reservations = bookingDAO.getBlockingReservations();
+        if (reservations == null) {
+            return;
+        }
+        Map<Integer, List<Booking>> grouped = new HashMap<>();
+        for (Booking b : reservations) {
+            grouped.computeIfAbsent(b.getCarId(), k -> new ArrayList<>()).add(b);
+        }
+        byCar.clear();
+        grouped.forEach((carId, list) -> byCar.put(carId, CarIntervals.of(list)));
+        prunedDay = LocalDate.now().toEpochDay();
+        loaded = true;
+    }
+
+    /**
+     * Re-reads one car's reservations, e.g. after the DB rejected a booking
+     * the index thought was free. Keeps the current entry if the query fails.
+     */
+    public void reloadCar(int carId) {
+        ensureLoaded();
+        List<Booking> list = bookingDAO.getBlockingReservationsForCar(carId);
+        if (list == null) {
+            return;
+        }
+        if (list.isEmpty()) {
+            byCar.remove(carId);
+        } else {
+            byCar.put(carId, CarIntervals.of(list));
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+        long today = LocalDate.now().toEpochDay();
+        if (loaded && prunedDay < today) {
+            prune(today);
+        }
+    }
+
+    /**
+     * Drops reservations that ended before {@code today}; they can no longer
+     * conflict with a new booking. Runs at most once a day.
+     */
+    private synchronized void prune(long today) {
+        if (prunedDay >= today) {
+            return;
+        }
+        for (Integer carId : byCar.keySet()) {
+            byCar.computeIfPresent(carId, (id, current) -> current.endingOnOrAfter(today));
+        }
+        prunedDay = today;
+    }
+
+    /**
+     * True when no blocking reservation of the car overlaps [start, end]
+     * (both inclusive, matching the SQL overlap check). A false answer may
+     * be stale if another client cancelled the conflicting booking; use
+     * {@link #isAvailableConfirmed} before refusing a booking.
+     */
+    public boolean isAvailable(int carId, LocalDate start, LocalDate end) {
+        ensureLoaded();
+        CarIntervals intervals = byCar.get(carId);
+        return intervals == null || !intervals.overlaps(start.toEpochDay(), end.toEpochDay());
+    }
+
+    /**
+     * Like {@link #isAvailable}, but a "busy" answer is confirmed by
+     * re-reading the car's reservations from the database first.
+     */
+    public boolean isAvailableConfirmed(int carId, LocalDate start, LocalDate end) {
+        if (isAvailable(carId, start, end)) {
+            return true;
+        }
+        reloadCar(carId);
+        return isAvailable(carId, start, end);
+    }
+
+    /**
+     * Returns the subset of the given cars that are free for [start, end],
+     * in the order given. Answered from the index, so it has the same
+     * staleness as {@link #isAvailable}.
+     */
+    public List<Integer> availableCars(Collection<Integer> carIds, LocalDate start, LocalDate end) {
+        ensureLoaded();
+        long s = start.toEpochDay();
+        long e = end.toEpochDay();
+        List<Integer> free = new ArrayList<>();
+        for (Integer carId : carIds) {
+            CarIntervals intervals = byCar.get(carId);
+            if (intervals == null || !intervals.overlaps(s, e)) {
+                free.add(carId);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Returns the ids of all cars that have a blocking reservation
+     * overlapping [start, end]; every other car is free for that range.
+     */
+    public Set<Integer> bookedCars(LocalDate start, LocalDate end) {
+        ensureLoaded();
+        long s = start.toEpochDay();
+        long e = end.toEpochDay();
+        Set<Integer> booked = new HashSet<>();
+        byCar.forEach((carId, intervals) -> {
+            if (intervals.overlaps(s, e)) {
+                booked.add(carId);
+            }
+        });
+        return booked;
+    }
+
+    /**
+     * Records a newly created blocking booking. Requires the booking id.
+     */
+    public void add(Booking booking) {
+        if (!loaded) {
+            // Next ensureLoaded() reads it from the database anyway
+            return;
+        }
+        byCar.compute(booking.getCarId(), (id, current) -> current == null
+                ? CarIntervals.of(List.of(booking))
+                : current.with(booking.getId(), booking.getStartDate().toEpochDay(), booking.getEndDate().toEpochDay()));
+    }
+
+    /**
+     * Drops a booking that no longer blocks its car (completed/cancelled).
+     */
+    public void remove(int carId, int bookingId) {
+        if (!loaded) {
+            return;
+        }
+        byCar.computeIfPresent(carId, (id, current) -> current.without(bookingId));
+    }
+
+    /**
+     * Immutable per-car reservation arrays sorted by start day.
+     */
+    private static final class CarIntervals {
+
+        private final int[] bookingIds;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEndPrefix; // max(ends[0..i])
+
+        private CarIntervals(int[] bookingIds, long[] starts, long[] ends) {
+            this.bookingIds = bookingIds;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEndPrefix = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEndPrefix[i] = max;
+            }
+        }
+
+        static CarIntervals of(List<Booking> bookings) {
+            Booking[] sorted = bookings.toArray(new Booking[0]);
+            Arrays.sort(sorted, (a, b) -> a.getStartDate().compareTo(b.getStartDate()));
+            int n = sorted.length;
+            int[] ids = new int[n];
+            long[] s = new long[n];
+            long[] e = new long[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = sorted[i].getId();
+                s[i] = sorted[i].getStartDate().toEpochDay();
+                e[i] = sorted[i].getEndDate().toEpochDay();
+            }
+            return new CarIntervals(ids, s, e);
+        }
+
+        boolean overlaps(long start, long end) {
+            // Last interval whose start <= end; any earlier one overlaps iff its end >= start
+            int i = lastStartAtOrBefore(end);
+            return i >= 0 && maxEndPrefix[i] >= start;
+        }
+
+        private int lastStartAtOrBefore(long day) {
+            int lo = 0;
+            int hi = starts.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] <= day) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found;
+        }
+
+        CarIntervals with(int bookingId, long start, long end) {
+            CarIntervals base = without(bookingId);
+            if (base == null) {
+                base = new CarIntervals(new int[0], new long[0], new long[0]);
+            }
+            int n = base.starts.length;
+            int pos = base.lastStartAtOrBefore(start) + 1;
+            int[] ids = new int[n + 1];
+            long[] s = new long[n + 1];
+            long[] e = new long[n + 1];
+            System.arraycopy(base.bookingIds, 0, ids, 0, pos);
+            System.arraycopy(base.starts, 0, s, 0, pos);
+            System.arraycopy(base.ends, 0, e, 0, pos);
+            ids[pos] = bookingId;
+            s[pos] = start;
+            e[pos] = end;
+            System.arraycopy(base.bookingIds, pos, ids, pos + 1, n - pos);
+            System.arraycopy(base.starts, pos, s, pos + 1, n - pos);
+            System.arraycopy(base.ends, pos, e, pos + 1, n - pos);
+            return new CarIntervals(ids, s, e);
+        }
+
+        /**
+         * Returns a copy without reservations ending before {@code day}, or
+         * null when nothing is left.
+         */
+        CarIntervals endingOnOrAfter(long day) {
+            int keep = 0;
+            for (long e : ends) {
+                if (e >= day) {
+                    keep++;
+                }
+            }
+            if (keep == ends.length) {
+                return this;
+            }
+            if (keep == 0) {
+                return null;
+            }
+            int[] ids = new int[keep];
+            long[] s = new long[keep];
+            long[] e = new long[keep];
+            int j = 0;
+            for (int i = 0; i < ends.length; i++) {
+                if (ends[i] >= day) {
+                    ids[j] = bookingIds[i];
+                    s[j] = starts[i];
+                    e[j] = ends[i];
+                    j++;
+                }
+            }
+            return new CarIntervals(ids, s, e);
+        }
+
+        /**
+         * Returns a copy without the booking, or null when nothing is left
+         * (which removes the car's entry from the map).
+         */
+        CarIntervals without(int bookingId) {
+            int idx = -1;
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    idx = i;
+                    break;
+                }
+            }
+            if (idx < 0) {
+                return this;
+            }
+            int n = bookingIds.length - 1;
+            if (n == 0) {
+                return null;
+            }
+            int[] ids = new int[n];
+            long[] s = new long[n];
+            long[] e = new long[n];
+            System.arraycopy(bookingIds, 0, ids, 0, idx);
+            System.arraycopy(starts, 0, s, 0, idx);
+            System.arraycopy(ends, 0, e, 0, idx);
+            System.arraycopy(bookingIds, idx + 1, ids, idx, n - idx);
+            System.arraycopy(starts, idx + 1, s, idx, n - idx);
+            System.arraycopy(ends, idx + 1, e, idx, n - idx);
+            return new CarIntervals(ids, s, e);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package services;
+
+import dao.BookingDAO;
+import dao.CarDAO;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import models.Booking;
+import models.Car;
+import utils.DatabaseConnection;
+
+/**
+ * Queues booking requests and commits them in groups.
+ *
+ * A single worker thread drains up to booking.intake.batchSize requests
+ * (waiting at most booking.intake.lingerMs for a batch to fill), rejects
+ * the ones the in-memory {@link AvailabilityEngine} already knows are taken
+ * or that overlap an earlier request in the same batch, prices the rest with
+ * one car lookup, and hands them to {@link BookingDAO#createBookingsBatch},
+ * which re-checks under lock and commits the whole group at once.
+ *
+ * Each submit returns a future completed with the saved booking, or with
+ * null if the booking was rejected or could not be saved.
+ */
+public class BookingIntakeQueue {
+
+    private static volatile BookingIntakeQueue shared;
+
+    private final BookingDAO bookingDAO;
+    private final CarDAO carDAO;
+    private final AvailabilityEngine availability;
+    private final int batchSize;
+    private final long lingerMs;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public BookingIntakeQueue(BookingDAO bookingDAO, CarDAO carDAO, AvailabilityEngine availability) {
+        this.bookingDAO = bookingDAO;
+        this.carDAO = carDAO;
+        this.availability = availability;
+        this.batchSize = Math.max(1, DatabaseConnection.getIntProperty("booking.intake.batchSize", 50));
+        this.lingerMs = Math.max(0, DatabaseConnection.getIntProperty("booking.intake.lingerMs", 5));
+        this.worker = new Thread(this::runWorker, "booking-intake");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Process-wide queue, drained on JVM shutdown before the connection
+     * pool closes (see {@link DatabaseConnection#onShutdown}).
+     */
+    public static BookingIntakeQueue shared() {
+        BookingIntakeQueue queue = shared;
+        if (queue == null) {
+            synchronized (BookingIntakeQueue.class) {
+                queue = shared;
+                if (queue == null) {
+                    queue = new BookingIntakeQueue(new BookingDAO(), new CarDAO(), AvailabilityEngine.shared());
+                    // Drained before the connection pool closes
+                    DatabaseConnection.onShutdown(queue::shutdown);
+                    shared = queue;
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Queues a pending booking for [start, end].
+     */
+    public CompletableFuture<Booking> submit(int userId, int carId, LocalDate start, LocalDate end) {
+        CompletableFuture<Booking> result = new CompletableFuture<>();
+        if (start == null || end == null || !end.isAfter(start)) {
+            result.complete(null);
+            return result;
+        }
+        // Paired with shutdown(): a request is either queued before the
+        // worker's final drain or rejected here, never left pending
+        synchronized (this) {
+            if (!running) {
+                result.complete(null);
+                return result;
+            }
+            queue.add(new Request(userId, carId, start, end, result));
+        }
+        return result;
+    }
+
+    /**
+     * Stops accepting requests and commits whatever is still queued.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            running = false;
+        }
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Worker gave up or timed out: reject what it did not get to
+        Request r;
+        while ((r = queue.poll()) != null) {
+            r.result.complete(null);
+        }
+    }
+
+    private void runWorker() {
+        List<Request> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Request first = running ? queue.take() : queue.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+                if (lingerMs > 0 && running && queue.size() < batchSize - 1) {
+                    Thread.sleep(lingerMs);
+                }
+            } catch (InterruptedException e) {
+                // shutdown(): fall through and flush the rest
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            if (!batch.isEmpty()) {
+                process(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Request> batch) {
+        try {
+            commit(batch);
+        } catch (RuntimeException e) {
+            System.err.println("Booking intake batch failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            // Anything not completed by commit() was not saved
+            for (Request r : batch) {
+                r.result.complete(null);
+            }
+        }
+    }
+
+    private void commit(List<Request> batch) {
+        // Drop requests the index already rejects or that clash within the batch
+        List<Request> candidates = new ArrayList<>();
+        Map<Integer, List<Request>> acceptedByCar = new HashMap<>();
+        for (Request r : batch) {
+            if (!availability.isAvailableConfirmed(r.carId, r.start, r.end) || overlapsAny(acceptedByCar.get(r.carId), r)) {
+                r.result.complete(null);
+                continue;
+            }
+            acceptedByCar.computeIfAbsent(r.carId, k -> new ArrayList<>()).add(r);
+            candidates.add(r);
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Car> cars = carDAO.getByIds(acceptedByCar.keySet());
+        List<Request> priced = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (Request r : candidates) {
+            Car car = cars.get(r.carId);
+            if (car == null || car.getPricePerDay() == null) {
+                r.result.complete(null);
+                continue;
+            }
+            priced.add(r);
+            bookings.add(new Booking(0, r.userId, r.carId, r.start, r.end, "pending",
+                    BookingService.totalPrice(car, r.start, r.end), LocalDateTime.now()));
+        }
+
+        boolean[] accepted = bookingDAO.createBookingsBatch(bookings);
+        for (int i = 0; i < priced.size(); i++) {
+            Request r = priced.get(i);
+            Booking booking = bookings.get(i);
+            if (accepted != null && accepted[i]) {
+                availability.add(booking);
+                r.result.complete(booking);
+            } else {
+                // Index was stale for this car (or the batch failed); resync it
+                availability.reloadCar(r.carId);
+                r.result.complete(null);
+            }
+        }
+    }
+
+    private static boolean overlapsAny(List<Request> others, Request r) {
+        if (others != null) {
+            for (Request o : others) {
+                if (!o.start.isAfter(r.end) && !o.end.isBefore(r.start)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class Request {
+        final int userId;
+        final int carId;
+        final LocalDate start;
+        final LocalDate end;
+        final CompletableFuture<Booking> result;
+
+        Request(int userId, int carId, LocalDate start, LocalDate end, CompletableFuture<Booking> result) {
+            this.userId = userId;
+            this.carId = carId;
+            this.start = start;
+            this.end = end;
+            this.result = result;
+        }
+    }
+}
@@ -2,13 +2,18 @@ package services;
 
 import dao.BookingDAO;
 import dao.CarDAO;
+import dao.CarSearchCriteria;
 import models.Booking;
+import models.BookingTransition;
 import models.Car;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * BookingService encapsulates booking lifecycle operations and ensures car
@@ -18,15 +23,43 @@ public class BookingService {
 
     private final BookingDAO bookingDAO;
     private final CarDAO carDAO;
+    private final AvailabilityEngine availability;
 
     public BookingService() {
-        this.bookingDAO = new BookingDAO();
-        this.carDAO = new CarDAO();
+        this(new BookingDAO(), new CarDAO(), AvailabilityEngine.shared());
     }
 
     public BookingService(BookingDAO bookingDAO, CarDAO carDAO) {
+        this(bookingDAO, carDAO, new AvailabilityEngine(bookingDAO));
+    }
+
+    public BookingService(BookingDAO bookingDAO, CarDAO carDAO, AvailabilityEngine availability) {
         this.bookingDAO = bookingDAO;
         this.carDAO = carDAO;
+        this.availability = availability;
+    }
+
+    /**
+     * Availability check answered from the in-memory index; a "busy" answer
+     * is confirmed against the database, so a cancellation by another
+     * client is not missed. createBooking still re-checks under a row lock.
+     */
+    public boolean isCarAvailable(int carId, LocalDate start, LocalDate end) {
+        return availability.isAvailableConfirmed(carId, start, end);
+    }
+
+    /**
+     * Fleet-wide search: cars free for [start, end] matching the optional
+     * make, price and year filters, answered by a single query.
+     *
+     * @return matching cars, or an empty list for an invalid date range
+     */
+    public List<Car> searchAvailableCars(CarSearchCriteria criteria) {
+        if (criteria == null || criteria.getStartDate() == null || criteria.getEndDate() == null
+                || criteria.getEndDate().isBefore(criteria.getStartDate())) {
+            return Collections.emptyList();
+        }
+        return carDAO.searchAvailableCars(criteria);
     }
 
     public boolean createBooking(int userId, int carId, LocalDate start, LocalDate end) {
@@ -34,8 +67,9 @@ public class BookingService {
             return false;
         }
 
-        // Check availability
-        if (!bookingDAO.isCarAvailable(carId, start, end)) {
+        // In-memory index first; a "busy" answer is re-read from the DB before refusing,
+        // and the locked insert below re-checks either way
+        if (!availability.isAvailableConfirmed(carId, start, end)) {
             return false;
         }
 
@@ -45,12 +79,7 @@ public class BookingService {
             return false;
         }
 
-        long days = ChronoUnit.DAYS.between(start, end);
-        if (days <= 0) {
-            days = 1; // minimum 1 day
-
-        }
-        BigDecimal total = car.getPricePerDay().multiply(BigDecimal.valueOf(days));
+        BigDecimal total = totalPrice(car, start, end);
 
         Booking booking = new Booking(
                 0,
@@ -66,55 +95,80 @@ public class BookingService {
         // Use transactional create to avoid double-booking
         boolean ok = bookingDAO.createBookingTransactional(booking);
         if (ok) {
+            availability.add(booking);
             // Optionally set car status to reserved to avoid races before admin approval
             carDAO.updateCarStatus(carId, "reserved");
+        } else {
+            // Index was stale (e.g. booking made elsewhere); resync this car
+            availability.reloadCar(carId);
         }
         return ok;
     }
 
-    public boolean approveBooking(int bookingId) {
-        // Mark booking confirmed
-        boolean ok = bookingDAO.updateBookingStatus(bookingId, "confirmed");
-        if (ok) {
-            // Set car reserved (if not already)
-            Booking b = bookingDAO.getById(bookingId);
-            if (b != null) {
-                carDAO.updateCarStatus(b.getCarId(), "reserved");
-            }
+    /**
+     * Queues the booking for group commit instead of saving it on the
+     * calling thread. The future completes with the saved booking, or null
+     * if it was rejected.
+     */
+    public CompletableFuture<Booking> submitBooking(int userId, int carId, LocalDate start, LocalDate end) {
+        return BookingIntakeQueue.shared().submit(userId, carId, start, end);
+    }
+
+    static BigDecimal totalPrice(Car car, LocalDate start, LocalDate end) {
+        long days = ChronoUnit.DAYS.between(start, end);
+        if (days <= 0) {
+            days = 1; // minimum 1 day
         }
-        return ok;
+        return car.getPricePerDay().multiply(BigDecimal.valueOf(days));
     }
 
-    public boolean startBooking(int bookingId) {
-        boolean ok = bookingDAO.updateBookingStatus(bookingId, "active");
-        if (ok) {
-            Booking b = bookingDAO.getById(bookingId);
-            if (b != null) {
-                carDAO.updateCarStatus(b.getCarId(), "rented");
-            }
+    /**
+     * Sets the booking and car status in one transaction and returns both
+     * as committed, or null if the booking does not exist or the update
+     * failed.
+     */
+    public BookingTransition transitionBooking(int bookingId, String bookingStatus, String carStatus) {
+        BookingTransition result = bookingDAO.transitionBooking(bookingId, bookingStatus, carStatus);
+        if (result != null && !isBlocking(bookingStatus)) {
+            availability.remove(result.getBooking().getCarId(), bookingId);
         }
-        return ok;
+        return result;
+    }
+
+    public BookingTransition approve(int bookingId) {
+        return transitionBooking(bookingId, "confirmed", "reserved");
+    }
+
+    public BookingTransition start(int bookingId) {
+        return transitionBooking(bookingId, "active", "rented");
+    }
+
+    public BookingTransition complete(int bookingId) {
+        return transitionBooking(bookingId, "completed", "available");
+    }
+
+    public BookingTransition cancel(int bookingId) {
+        return transitionBooking(bookingId, "cancelled", "available");
+    }
+
+    public boolean approveBooking(int bookingId) {
+        return approve(bookingId) != null;
+    }
+
+    public boolean startBooking(int bookingId) {
+        return start(bookingId) != null;
     }
 
     public boolean completeBooking(int bookingId) {
-        boolean ok = bookingDAO.updateBookingStatus(bookingId, "completed");
-        if (ok) {
-            Booking b = bookingDAO.getById(bookingId);
-            if (b != null) {
-                carDAO.updateCarStatus(b.getCarId(), "available");
-            }
-        }
-        return ok;
+        return complete(bookingId) != null;
     }
 
     public boolean cancelBooking(int bookingId) {
-        boolean ok = bookingDAO.updateBookingStatus(bookingId, "cancelled");
-        if (ok) {
-            Booking b = bookingDAO.getById(bookingId);
-            if (b != null) {
-                carDAO.updateCarStatus(b.getCarId(), "available");
-            }
-        }
-        return ok;
+        return cancel(bookingId) != null;
+    }
+
+    private static boolean isBlocking(String status) {
+        return "confirmed".equals(status) || "active".equals(status)
+                || "pending".equals(status) || "reserved".equals(status);
     }
 }
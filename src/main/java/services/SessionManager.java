@@ -4,6 +4,7 @@ import dao.SessionDAO;
 import dao.UserDAO;
 import models.User;
 import models.UserSession;
+import utils.SessionTokenStore;
 
 public class SessionManager {
 
@@ -27,6 +28,7 @@ public class SessionManager {
 
         String sessionToken = sessionDAO.createSession(user.getId());
         if (sessionToken != null) {
+            SessionTokenStore.save(sessionToken);
             this.currentSessionToken = sessionToken;
             this.currentUser = user;
             return true;
@@ -35,19 +37,34 @@ public class SessionManager {
     }
 
     /**
-     * Checks if there's an active session and restores it
+     * Checks if there's an active session and restores it. Looks up the
+     * locally saved token first (unique index on session_token); falls back
+     * to the most recently used active session for installations that have
+     * no saved token yet.
      */
     public boolean restoreSession() {
-        UserSession activeSession = sessionDAO.getActiveSession();
+        UserSession activeSession = null;
+        String savedToken = SessionTokenStore.load();
+        if (savedToken != null) {
+            activeSession = sessionDAO.getSessionByToken(savedToken);
+            if (activeSession == null) {
+                // Logged out or reaped elsewhere
+                SessionTokenStore.clear();
+                return false;
+            }
+        } else {
+            activeSession = sessionDAO.getActiveSession();
+        }
         if (activeSession != null) {
             // Get user details for this session
             User user = userDAO.getById(activeSession.getUserId());
             if (user != null) {
                 this.currentSessionToken = activeSession.getSessionToken();
                 this.currentUser = user;
+                SessionTokenStore.save(currentSessionToken);
 
-                // Update last accessed time
-                sessionDAO.updateSessionAccess(currentSessionToken);
+                // Update last accessed time (written behind)
+                SessionTouchBuffer.shared().touch(currentSessionToken);
                 return true;
             }
         }
@@ -55,11 +72,12 @@ public class SessionManager {
     }
 
     /**
-     * Updates the current session's last accessed time
+     * Updates the current session's last accessed time. Buffered in memory
+     * and written in batches by {@link SessionTouchBuffer}.
      */
     public void updateSessionActivity() {
         if (currentSessionToken != null) {
-            sessionDAO.updateSessionAccess(currentSessionToken);
+            SessionTouchBuffer.shared().touch(currentSessionToken);
         }
     }
 
@@ -68,8 +86,10 @@ public class SessionManager {
      */
     public boolean logout() {
         if (currentSessionToken != null) {
+            SessionTouchBuffer.shared().discard(currentSessionToken);
             boolean success = sessionDAO.deactivateSession(currentSessionToken);
             if (success) {
+                SessionTokenStore.clear();
                 this.currentSessionToken = null;
                 this.currentUser = null;
                 return true;
@@ -114,9 +134,10 @@ public class SessionManager {
     }
 
     /**
-     * Cleans up expired sessions (maintenance operation)
+     * Cleans up expired and logged-out sessions now, in bounded chunks
+     * (maintenance operation; normally done by the background reaper)
      */
     public void cleanupExpiredSessions() {
-        sessionDAO.cleanupExpiredSessions();
+        SessionReaper.shared().runCycle();
     }
 }
@@ -0,0 +1,160 @@
+package services;
+
+import dao.SessionDAO;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import utils.DatabaseConnection;
+
+/**
+ * Background job that deletes expired sessions (older than 30 days) and
+ * logged-out sessions in bounded chunks.
+ *
+ * Each chunk is a DELETE ... LIMIT session.reaper.batchSize in its own
+ * autocommit transaction, followed by a session.reaper.pauseMs sleep, so a
+ * large backlog never holds many row locks or a big undo log at once and
+ * interactive queries get in between chunks. A cycle runs every
+ * session.reaper.intervalMinutes and logs the rows it removed.
+ */
+public class SessionReaper {
+
+    private static volatile SessionReaper shared;
+
+    private final SessionDAO sessionDAO;
+    private final int batchSize;
+    private final long pauseMs;
+    private final int inactiveRetentionDays;
+    private final long intervalMinutes;
+    private ScheduledExecutorService scheduler;
+    private volatile CycleResult lastCycle;
+
+    public SessionReaper(SessionDAO sessionDAO, int batchSize, long pauseMs, int inactiveRetentionDays, long intervalMinutes) {
+        this.sessionDAO = sessionDAO;
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMs = Math.max(0, pauseMs);
+        this.inactiveRetentionDays = inactiveRetentionDays;
+        this.intervalMinutes = Math.max(1, intervalMinutes);
+    }
+
+    /**
+     * Process-wide reaper configured from config/db.properties.
+     */
+    public static SessionReaper shared() {
+        SessionReaper reaper = shared;
+        if (reaper == null) {
+            synchronized (SessionReaper.class) {
+                reaper = shared;
+                if (reaper == null) {
+                    reaper = new SessionReaper(new SessionDAO(),
+                            DatabaseConnection.getIntProperty("session.reaper.batchSize", 500),
+                            DatabaseConnection.getLongProperty("session.reaper.pauseMs", 200),
+                            DatabaseConnection.getIntProperty("session.reaper.inactiveRetentionDays", 1),
+                            DatabaseConnection.getLongProperty("session.reaper.intervalMinutes", 60));
+                    shared = reaper;
+                }
+            }
+        }
+        return reaper;
+    }
+
+    /**
+     * Starts the periodic cycle on a daemon thread (first run after one
+     * minute, off the startup path). Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runCycle();
+            } catch (RuntimeException e) {
+                System.err.println("Session reaper cycle failed: " + e.getMessage());
+            }
+        }, 1, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Runs one full cycle now, chunk by chunk, and reports what it removed.
+     */
+    public CycleResult runCycle() {
+        long start = System.currentTimeMillis();
+        int[] chunks = {0};
+        int expired = drain(() -> sessionDAO.deleteExpiredChunk(batchSize), chunks);
+        int inactive = drain(() -> sessionDAO.deleteInactiveChunk(inactiveRetentionDays, batchSize), chunks);
+        CycleResult result = new CycleResult(expired, inactive, chunks[0], System.currentTimeMillis() - start);
+        lastCycle = result;
+        System.out.println("Session reaper: " + result);
+        return result;
+    }
+
+    /**
+     * Result of the most recent cycle, or null before the first one.
+     */
+    public CycleResult getLastCycle() {
+        return lastCycle;
+    }
+
+    private int drain(IntSupplier chunk, int[] chunks) {
+        int total = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            int deleted = chunk.getAsInt();
+            if (deleted <= 0) {
+                break;
+            }
+            chunks[0]++;
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Rows removed by one reaper cycle.
+     */
+    public static final class CycleResult {
+        private final int expired;
+        private final int inactive;
+        private final int chunks;
+        private final long elapsedMs;
+
+        CycleResult(int expired, int inactive, int chunks, long elapsedMs) {
+            this.expired = expired;
+            this.inactive = inactive;
+            this.chunks = chunks;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public int getExpired() { return expired; }
+        public int getInactive() { return inactive; }
+        public int getTotal() { return expired + inactive; }
+        public int getChunks() { return chunks; }
+        public long getElapsedMs() { return elapsedMs; }
+
+        @Override
+        public String toString() {
+            return "removed " + expired + " expired and " + inactive + " inactive sessions in "
+                    + chunks + " chunks (" + elapsedMs + " ms)";
+        }
+    }
+}
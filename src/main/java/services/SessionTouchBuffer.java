@@ -0,0 +1,106 @@
+package services;
+
+import dao.SessionDAO;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import utils.DatabaseConnection;
+
+/**
+ * Write-behind buffer for session last_accessed updates.
+ *
+ * Activity pings only record the latest access time per token in memory;
+ * repeated pings for the same session coalesce into one entry. A daemon
+ * thread writes the dirty entries with one batched UPDATE every
+ * session.touch.flushSeconds (default 5), and the database shutdown
+ * sequence flushes what is left. A failed flush keeps its entries for the next attempt.
+ */
+public class SessionTouchBuffer {
+
+    private static volatile SessionTouchBuffer shared;
+
+    private final SessionDAO sessionDAO;
+    private final Map<String, LocalDateTime> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public SessionTouchBuffer(SessionDAO sessionDAO, long flushSeconds) {
+        this.sessionDAO = sessionDAO;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-touch-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Process-wide buffer, flushed on JVM shutdown before the connection
+     * pool closes (see {@link DatabaseConnection#onShutdown}).
+     */
+    public static SessionTouchBuffer shared() {
+        SessionTouchBuffer buffer = shared;
+        if (buffer == null) {
+            synchronized (SessionTouchBuffer.class) {
+                buffer = shared;
+                if (buffer == null) {
+                    long seconds = Math.max(1, DatabaseConnection.getLongProperty("session.touch.flushSeconds", 5));
+                    buffer = new SessionTouchBuffer(new SessionDAO(), seconds);
+                    // Flushed before the connection pool closes
+                    DatabaseConnection.onShutdown(buffer::shutdown);
+                    shared = buffer;
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Records activity on the session; written on the next flush.
+     */
+    public void touch(String sessionToken) {
+        if (sessionToken != null) {
+            dirty.merge(sessionToken, LocalDateTime.now(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    /**
+     * Forgets pending activity, e.g. when the session is being closed.
+     */
+    public void discard(String sessionToken) {
+        if (sessionToken != null) {
+            dirty.remove(sessionToken);
+        }
+    }
+
+    /**
+     * Writes all pending access times now.
+     *
+     * @return number of sessions written
+     */
+    public synchronized int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        Map<String, LocalDateTime> batch = new HashMap<>(dirty);
+        try {
+            if (!sessionDAO.updateSessionAccessBatch(batch)) {
+                return 0; // keep entries; retried next cycle
+            }
+            // Only drop entries not touched again since the snapshot
+            batch.forEach(dirty::remove);
+            return batch.size();
+        } catch (RuntimeException e) {
+            System.err.println("Session touch flush failed: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,334 @@
+package services;
+
+import dao.UserDAO;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import models.User;
+import utils.DatabaseConnection;
+import utils.PasswordHasher;
+
+/**
+ * Imports users from a CSV of {@code username,role,organization[,password]}.
+ *
+ * The file is read line by line. Each valid row's password is hashed on a
+ * worker pool (PBKDF2 is the expensive part), and every
+ * user.import.batchSize rows are written with one batched INSERT IGNORE
+ * via {@link UserDAO#insertUsersBatch}. Rows without a password get a
+ * generated one only when a credentials writer is given: each batch's
+ * generated {@code username,password} lines are written and flushed before
+ * the batch is inserted, so no account is created with a password nobody
+ * has. Without a writer such rows are rejected. Invalid rows and existing usernames are reported per line and do not
+ * stop the import. A header line starting with "username" is skipped.
+ */
+public class UserImportService {
+
+    private static final int MAX_USERNAME = 50;
+    private static final int MAX_ORGANIZATION = 100;
+    private static final String PASSWORD_CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz23456789";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Called after each batch with the rows read so far and users inserted.
+     */
+    public interface Progress {
+        void update(int processed, int imported);
+    }
+
+    private final UserDAO userDAO;
+    private final int batchSize;
+    private final int threads;
+
+    public UserImportService() {
+        this(new UserDAO(),
+                DatabaseConnection.getIntProperty("user.import.batchSize", 500),
+                DatabaseConnection.getIntProperty("user.import.threads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    public UserImportService(UserDAO userDAO, int batchSize, int threads) {
+        this.userDAO = userDAO;
+        this.batchSize = Math.max(1, batchSize);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Imports the CSV.
+     *
+     * @param credentials where generated passwords are written as CSV, or
+     *                    null to reject rows that have no password
+     */
+    public Result importCsv(Reader reader, Writer credentials, Progress progress) throws IOException {
+        long start = System.currentTimeMillis();
+        Result result = new Result();
+        Set<String> seen = new HashSet<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "user-import-hash");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+            List<PendingRow> batch = new ArrayList<>(batchSize);
+            if (credentials != null) {
+                credentials.write("username,password\n");
+            }
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                List<String> cells = parseLine(line);
+                if (lineNo == 1 && cells.get(0).trim().equalsIgnoreCase("username")) {
+                    continue;
+                }
+                result.processed++;
+                PendingRow row = validate(lineNo, cells, seen, credentials != null, result);
+                if (row == null) {
+                    continue;
+                }
+                String password = row.password;
+                row.hash = pool.submit(() -> PasswordHasher.encode(password));
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    flush(batch, credentials, result);
+                    if (progress != null) {
+                        progress.update(result.processed, result.imported);
+                    }
+                }
+            }
+            flush(batch, credentials, result);
+            if (progress != null) {
+                progress.update(result.processed, result.imported);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        result.elapsedMs = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    private PendingRow validate(int lineNo, List<String> cells, Set<String> seen, boolean canGenerate, Result result) {
+        String username = cell(cells, 0);
+        String role = cell(cells, 1).toLowerCase();
+        String organization = cell(cells, 2);
+        String password = cell(cells, 3);
+        if (username.isEmpty()) {
+            result.fail(lineNo, username, "Username cannot be empty");
+            return null;
+        }
+        if (username.length() > MAX_USERNAME) {
+            result.fail(lineNo, username, "Username is longer than " + MAX_USERNAME + " characters");
+            return null;
+        }
+        if (role.isEmpty()) {
+            role = "user";
+        } else if (!role.equals("user") && !role.equals("admin")) {
+            result.fail(lineNo, username, "Role must be 'user' or 'admin'");
+            return null;
+        }
+        if (organization.length() > MAX_ORGANIZATION) {
+            result.fail(lineNo, username, "Organization is longer than " + MAX_ORGANIZATION + " characters");
+            return null;
+        }
+        if (password.isEmpty() && !canGenerate) {
+            result.fail(lineNo, username, "Password missing (no file chosen for generated passwords)");
+            return null;
+        }
+        if (!password.isEmpty() && password.length() < 4) {
+            result.fail(lineNo, username, "Password must be at least 4 characters");
+            return null;
+        }
+        if (!seen.add(username)) {
+            result.fail(lineNo, username, "Duplicate username in file");
+            return null;
+        }
+        boolean generated = password.isEmpty();
+        if (generated) {
+            password = generatePassword(12);
+        }
+        return new PendingRow(lineNo, username, role, organization.isEmpty() ? null : organization, password, generated);
+    }
+
+    private void flush(List<PendingRow> batch, Writer credentials, Result result) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Record generated passwords before the accounts exist; a write error aborts the import
+        if (credentials != null) {
+            for (PendingRow row : batch) {
+                if (row.generated) {
+                    credentials.write(csvField(row.username) + "," + row.password + "\n");
+                }
+            }
+            credentials.flush();
+        }
+        List<User> users = new ArrayList<>(batch.size());
+        for (PendingRow row : batch) {
+            users.add(new User(0, row.username, awaitHash(row), row.role, row.organization, null));
+        }
+        boolean[] inserted = userDAO.insertUsersBatch(users);
+        for (int i = 0; i < batch.size(); i++) {
+            PendingRow row = batch.get(i);
+            if (inserted == null) {
+                result.fail(row.lineNo, row.username, "Database error");
+            } else if (!inserted[i]) {
+                result.fail(row.lineNo, row.username, "Username already exists");
+            } else {
+                result.imported++;
+                if (row.generated) {
+                    result.generated++;
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private static String awaitHash(PendingRow row) throws IOException {
+        try {
+            return row.hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Hashing failed for " + row.username, e.getCause());
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String cell(List<String> cells, int index) {
+        return index < cells.size() ? cells.get(index).trim() : "";
+    }
+
+    /**
+     * Splits one CSV line, honouring double-quoted cells with "" escapes.
+     */
+    static List<String> parseLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static String generatePassword(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(PASSWORD_CHARS.charAt(RANDOM.nextInt(PASSWORD_CHARS.length())));
+        }
+        return sb.toString();
+    }
+
+    private static final class PendingRow {
+        final int lineNo;
+        final String username;
+        final String role;
+        final String organization;
+        final String password;
+        final boolean generated;
+        Future<String> hash;
+
+        PendingRow(int lineNo, String username, String role, String organization, String password, boolean generated) {
+            this.lineNo = lineNo;
+            this.username = username;
+            this.role = role;
+            this.organization = organization;
+            this.password = password;
+            this.generated = generated;
+        }
+    }
+
+    /**
+     * A CSV line that was not imported.
+     */
+    public static final class RowFailure {
+        private final int line;
+        private final String username;
+        private final String reason;
+
+        RowFailure(int line, String username, String reason) {
+            this.line = line;
+            this.username = username;
+            this.reason = reason;
+        }
+
+        public int getLine() { return line; }
+        public String getUsername() { return username; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "Line " + line + (username.isEmpty() ? "" : " (" + username + ")") + ": " + reason;
+        }
+    }
+
+    /**
+     * Outcome of one import.
+     */
+    public static final class Result {
+        private int processed;
+        private int imported;
+        private int generated;
+        private long elapsedMs;
+        private final List<RowFailure> failures = new ArrayList<>();
+
+        void fail(int line, String username, String reason) {
+            failures.add(new RowFailure(line, username, reason));
+        }
+
+        public int getProcessed() { return processed; }
+        public int getImported() { return imported; }
+        public long getElapsedMs() { return elapsedMs; }
+        public List<RowFailure> getFailures() { return failures; }
+
+        /**
+         * Users actually inserted with a generated password. The credentials
+         * file is written before each insert, so it can also list users
+         * that were then rejected (e.g. because they already existed).
+         */
+        public int getGenerated() { return generated; }
+
+        @Override
+        public String toString() {
+            return imported + " of " + processed + " rows imported (" + generated + " with generated passwords), "
+                    + failures.size() + " failed (" + elapsedMs + " ms)";
+        }
+    }
+}
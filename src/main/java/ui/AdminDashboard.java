@@ -2,16 +2,19 @@ package ui;
 
 import dao.CarDAO;
 import dao.BookingDAO;
+import dao.DashboardStatsDAO;
+import dao.QueryHandle;
 import dao.UserDAO;
 import models.Car;
 import models.Booking;
+import models.BookingView;
+import models.DashboardStats;
 import models.User;
+import services.UserImportService;
 import ui.components.*;
 import utils.ModernTheme;
 
 import javax.swing.*;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
 import javax.swing.table.TableRowSorter;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -28,6 +31,7 @@ public class AdminDashboard extends JPanel {
     private BookingDAO bookingDAO;
     private services.BookingService bookingService;
     private UserDAO userDAO;
+    private DashboardStatsDAO dashboardStatsDAO;
     private CardLayout cardLayout;
     private JPanel contentPanel;
     private services.AuthService authService;
@@ -40,6 +44,16 @@ public class AdminDashboard extends JPanel {
     private StatCard activeBookingsStatCard;
     private StatCard availableCarsStatCard;
     private StatCard revenueStatCard;
+    // Users and bookings tables load page by page as they scroll
+    private static final int TABLE_PAGE_SIZE = 100;
+    private static final int TABLE_MAX_PAGES = 20;
+    private PagedTableLoader<User> usersLoader;
+    private VirtualTableModel bookingsModel;
+    // Current search box text; empty means list everything
+    private static final int SEARCH_LIMIT = 500;
+    private volatile String usersQuery = "";
+    private String carsQuery = "";
+    private QueryHandle carsSearch;
 
     public AdminDashboard() {
         this(null, null, null);
@@ -50,6 +64,7 @@ public class AdminDashboard extends JPanel {
         this.bookingDAO = new BookingDAO();
         this.bookingService = new services.BookingService();
         this.userDAO = new UserDAO();
+        this.dashboardStatsDAO = new DashboardStatsDAO();
         this.authService = authService;
         this.parentCardLayout = parentCardLayout;
         this.parentCardPanel = parentCardPanel;
@@ -196,49 +211,26 @@ public class AdminDashboard extends JPanel {
 
     // New method to load statistics with modern cards
     private void loadStatisticsWithCards(StatCard usersCard, StatCard carsCard, StatCard bookingsCard, StatCard availableCard, StatCard revenueCard, StatCard pendingCard) {
-        SwingWorker<Object[], Void> worker = new SwingWorker<Object[], Void>() {
+        SwingWorker<DashboardStats, Void> worker = new SwingWorker<DashboardStats, Void>() {
             @Override
-            protected Object[] doInBackground() {
-                int totalUsers = 0;
-                int totalCars = 0;
-                int activeBookings = 0;
-                int availableCars = 0;
-                int pendingApprovals = 0;
-                java.math.BigDecimal totalRevenue = java.math.BigDecimal.ZERO;
-                try {
-                    java.util.List<User> users = userDAO.getAllUsers();
-                    totalUsers = users.size();
-                    java.util.List<Car> cars = carDAO.getAllCars();
-                    totalCars = cars.size();
-                    java.util.List<Car> available = carDAO.getAvailableCars();
-                    availableCars = available.size();
-                    java.util.List<Booking> bookings = bookingDAO.getAllBookings();
-                    activeBookings = (int) bookings.stream()
-                        .filter(b -> b.getStatus() != null && 
-                                   (b.getStatus().equalsIgnoreCase("active") || 
-                                    b.getStatus().equalsIgnoreCase("approved")))
-                        .count();
-                    pendingApprovals = (int) bookings.stream()
-                        .filter(b -> b.getStatus() != null && b.getStatus().equalsIgnoreCase("pending"))
-                        .count();
-                    totalRevenue = bookingDAO.getTotalRevenue();
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
-                return new Object[]{totalUsers, totalCars, activeBookings, availableCars, totalRevenue, pendingApprovals};
+            protected DashboardStats doInBackground() {
+                // One aggregate round trip; cost stays flat as tables grow
+                return dashboardStatsDAO.getStats();
             }
 
             @Override
             protected void done() {
                 try {
-                    Object[] stats = get();
-                    usersCard.updateValue(String.valueOf((int) stats[0]), null);
-                    carsCard.updateValue(String.valueOf((int) stats[1]), null);
-                    bookingsCard.updateValue(String.valueOf((int) stats[2]), null);
-                    availableCard.updateValue(String.valueOf((int) stats[3]), null);
-                    java.math.BigDecimal rev = (java.math.BigDecimal) stats[4];
-                    revenueCard.updateValue("₹" + new java.text.DecimalFormat("#,##0.00").format(rev), null);
-                    pendingCard.updateValue(String.valueOf((int) stats[5]), null);
+                    DashboardStats stats = get();
+                    if (stats == null) {
+                        return;
+                    }
+                    usersCard.updateValue(String.valueOf(stats.getTotalUsers()), null);
+                    carsCard.updateValue(String.valueOf(stats.getTotalCars()), null);
+                    bookingsCard.updateValue(String.valueOf(stats.getActiveBookings()), null);
+                    availableCard.updateValue(String.valueOf(stats.getAvailableCars()), null);
+                    revenueCard.updateValue("₹" + new java.text.DecimalFormat("#,##0.00").format(stats.getTotalRevenue()), null);
+                    pendingCard.updateValue(String.valueOf(stats.getPendingBookings()), null);
                 } catch (Exception ex) {
                     ex.printStackTrace();
                 }
@@ -276,7 +268,7 @@ public class AdminDashboard extends JPanel {
         String[] columnNames = {"ID", "User Code", "Username", "Role", "Organization", "Created At"};
         ModernTable modernTable = new ModernTable(columnNames);
         JTable table = modernTable.getTable();
-        DefaultTableModel model = modernTable.getModel();
+        DefaultTableModel model = modernTable.getDefaultModel();
 
         // Custom renderer for Role column to show StatusBadge
         table.getColumnModel().getColumn(3).setCellRenderer(new TableCellRenderer() {
@@ -301,33 +293,12 @@ public class AdminDashboard extends JPanel {
             }
         });
 
-        // Enable filtering
-        TableRowSorter<DefaultTableModel> userSorter = new TableRowSorter<>(model);
-        table.setRowSorter(userSorter);
-        searchField.getDocument().addDocumentListener(new DocumentListener() {
-            private void update() {
-                String text = searchField.getText();
-                if (text == null || text.isBlank()) {
-                    userSorter.setRowFilter(null);
-                } else {
-                    userSorter.setRowFilter(RowFilter.regexFilter("(?i)" + java.util.regex.Pattern.quote(text)));
-                }
-            }
-
-            @Override
-            public void insertUpdate(DocumentEvent e) {
-                update();
-            }
-
-            @Override
-            public void removeUpdate(DocumentEvent e) {
-                update();
-            }
+        table.setRowSorter(new TableRowSorter<>(model));
 
-            @Override
-            public void changedUpdate(DocumentEvent e) {
-                update();
-            }
+        // Server-side search: re-run the paged query with the search words
+        SearchDebouncer.install(searchField, text -> {
+            usersQuery = text;
+            usersLoader.reload(null);
         });
 
         JScrollPane scrollPane = new JScrollPane(modernTable);
@@ -336,11 +307,18 @@ public class AdminDashboard extends JPanel {
         centerPanel.add(scrollPane, BorderLayout.CENTER);
         panel.add(centerPanel, BorderLayout.CENTER);
 
+        usersLoader = new PagedTableLoader<>(model, TABLE_PAGE_SIZE, "users",
+                (cursor, limit, handle) -> userDAO.searchUsersPage(usersQuery, cursor, limit, handle), this::toUserRow);
+        usersLoader.attach(scrollPane);
+
         // Modern button toolbar
         JPanel toolbar = ModernTheme.createToolbar();
         
         ActionButton addButton = new ActionButton("Add User", ActionButton.Type.SUCCESS);
-        addButton.addActionListener(e -> showAddUserDialog(model));
+        addButton.addActionListener(e -> showAddUserDialog());
+
+        ActionButton importButton = new ActionButton("Import CSV", ActionButton.Type.SECONDARY);
+        importButton.addActionListener(e -> importUsersFromCsv(importButton));
 
         ActionButton editButton = new ActionButton("Edit User", ActionButton.Type.SECONDARY);
         editButton.addActionListener(e -> {
@@ -375,61 +353,46 @@ public class AdminDashboard extends JPanel {
         ActionButton refreshButton = new ActionButton("Refresh", ActionButton.Type.GHOST);
         refreshButton.addActionListener(e -> {
             refreshButton.setLoading(true);
-            loadUsersData(model, refreshButton);
+            usersLoader.reload(refreshButton);
         });
 
         toolbar.add(addButton);
+        toolbar.add(importButton);
         toolbar.add(editButton);
         toolbar.add(deleteButton);
         toolbar.add(Box.createHorizontalGlue());
         toolbar.add(refreshButton);
         panel.add(toolbar, BorderLayout.SOUTH);
 
-        // Load users from database
-        loadUsersData(model, refreshButton);
+        // Load the first page of users
+        usersLoader.reload(refreshButton);
 
         return panel;
     }
 
-    // Helper method to load users data
-    private void loadUsersData(DefaultTableModel model, ActionButton refreshButton) {
-        SwingWorker<List<User>, Void> worker = new SwingWorker<List<User>, Void>() {
-            @Override
-            protected List<User> doInBackground() {
-                return userDAO.getAllUsers();
-            }
+    // Id of the selected booking, or null (with a toast) while its page is still loading
+    private Integer selectedBookingId(VirtualTableModel model, int modelRow, Component parent) {
+        Object id = model.getRowKey(modelRow);
+        if (id == null) {
+            Toast.info(parent, "The selected booking is still loading.");
+        }
+        return (Integer) id;
+    }
 
-            @Override
-            protected void done() {
-                try {
-                    List<User> users = get();
-                    model.setRowCount(0);
-                    for (User user : users) {
-                        String userCode = utils.DisplayCodeUtil.codeFromName(user.getUsername());
-                        model.addRow(new Object[]{
-                            user.getId(),
-                            userCode,
-                            user.getUsername(),
-                            user.getRole(),
-                            user.getOrganization() != null ? user.getOrganization() : "-",
-                            formatDate(user.getCreatedAt())
-                        });
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    JOptionPane.showMessageDialog(null, "Error loading users: " + e.getMessage());
-                } finally {
-                    if (refreshButton != null) {
-                        refreshButton.setLoading(false);
-                    }
-                }
-            }
+    private Object[] toUserRow(User user) {
+        String userCode = utils.DisplayCodeUtil.codeFromName(user.getUsername());
+        return new Object[]{
+            user.getId(),
+            userCode,
+            user.getUsername(),
+            user.getRole(),
+            user.getOrganization() != null ? user.getOrganization() : "-",
+            formatDate(user.getCreatedAt())
         };
-        worker.execute();
     }
 
     // Dialog for adding a new user
-    private void showAddUserDialog(DefaultTableModel model) {
+    private void showAddUserDialog() {
         JPanel panel = new JPanel(new GridLayout(0, 2, 8, 8));
         JTextField usernameField = new JTextField();
         JPasswordField passwordField = new JPasswordField();
@@ -455,38 +418,74 @@ public class AdminDashboard extends JPanel {
             }
             if (userDAO.register(username, password, role, org)) {
                 Toast.success(this, "User added successfully.");
-                // Reload users
-                SwingWorker<List<User>, Void> worker = new SwingWorker<List<User>, Void>() {
-                    @Override
-                    protected List<User> doInBackground() {
-                        return userDAO.getAllUsers();
-                    }
-
-                    @Override
-                    protected void done() {
-                        try {
-                            List<User> users = get();
-                            model.setRowCount(0);
-                            for (User user : users) {
-                                model.addRow(new Object[]{
-                                    user.getId(),
-                                    user.getUsername(),
-                                    user.getRole(),
-                                    user.getCreatedAt()
-                                });
-                            }
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    }
-                };
-                worker.execute();
+                usersLoader.reload(null);
             } else {
                 Toast.error(this, "Failed to add user: " + userDAO.getLastError());
             }
         }
     }
 
+    // Bulk import of users from a CSV file (username,role,organization[,password])
+    private void importUsersFromCsv(ActionButton importButton) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Users (username, role, organization[, password])");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV files", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        java.io.File file = chooser.getSelectedFile();
+
+        // Generated passwords are written here before their accounts are created
+        JFileChooser credentialsChooser = new JFileChooser(file.getParentFile());
+        credentialsChooser.setDialogTitle("Save generated passwords to (Cancel = rows without a password are rejected)");
+        credentialsChooser.setSelectedFile(new java.io.File(file.getParentFile(), "imported_passwords.csv"));
+        java.io.File credentialsFile = credentialsChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION
+                ? credentialsChooser.getSelectedFile() : null;
+
+        importButton.setLoading(true);
+        SwingWorker<UserImportService.Result, Void> worker = new SwingWorker<UserImportService.Result, Void>() {
+            @Override
+            protected UserImportService.Result doInBackground() throws Exception {
+                try (java.io.Reader reader = java.nio.file.Files.newBufferedReader(file.toPath());
+                     java.io.Writer credentials = credentialsFile != null
+                             ? java.nio.file.Files.newBufferedWriter(credentialsFile.toPath()) : null) {
+                    return new UserImportService().importCsv(reader, credentials, null);
+                }
+            }
+
+            @Override
+            protected void done() {
+                importButton.setLoading(false);
+                try {
+                    showImportResult(get(), credentialsFile);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    Toast.error(AdminDashboard.this, "Import failed: " + e.getMessage());
+                }
+                usersLoader.reload(null);
+            }
+        };
+        worker.execute();
+    }
+
+    private void showImportResult(UserImportService.Result result, java.io.File credentialsFile) {
+        StringBuilder report = new StringBuilder(result.toString());
+        if (result.getGenerated() > 0) {
+            report.append("\nGenerated passwords saved to ").append(credentialsFile.getAbsolutePath());
+        }
+        List<UserImportService.RowFailure> failures = result.getFailures();
+        int shown = Math.min(failures.size(), 500);
+        for (int i = 0; i < shown; i++) {
+            report.append('\n').append(failures.get(i));
+        }
+        if (failures.size() > shown) {
+            report.append("\n... and ").append(failures.size() - shown).append(" more");
+        }
+        JTextArea area = new JTextArea(report.toString(), 15, 60);
+        area.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(area), "User Import", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     private JPanel createCarsPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(ModernTheme.BG_DARK);
@@ -510,7 +509,7 @@ public class AdminDashboard extends JPanel {
         String[] columnNames = {"ID", "Car Code", "Make", "Model", "Year", "License Plate", "Status", "Total KM", "Price/Day"};
         ModernTable modernTable = new ModernTable(columnNames);
         JTable table = modernTable.getTable();
-        DefaultTableModel model = modernTable.getModel();
+        DefaultTableModel model = modernTable.getDefaultModel();
 
         // Custom renderer for Status column to show StatusBadge
         table.getColumnModel().getColumn(6).setCellRenderer(new TableCellRenderer() {
@@ -546,33 +545,12 @@ public class AdminDashboard extends JPanel {
             }
         });
 
-        // Enable filtering
-        TableRowSorter<DefaultTableModel> carSorter = new TableRowSorter<>(model);
-        table.setRowSorter(carSorter);
-        searchField.getDocument().addDocumentListener(new DocumentListener() {
-            private void update() {
-                String text = searchField.getText();
-                if (text == null || text.isBlank()) {
-                    carSorter.setRowFilter(null);
-                } else {
-                    carSorter.setRowFilter(RowFilter.regexFilter("(?i)" + java.util.regex.Pattern.quote(text)));
-                }
-            }
+        table.setRowSorter(new TableRowSorter<>(model));
 
-            @Override
-            public void insertUpdate(DocumentEvent e) {
-                update();
-            }
-
-            @Override
-            public void removeUpdate(DocumentEvent e) {
-                update();
-            }
-
-            @Override
-            public void changedUpdate(DocumentEvent e) {
-                update();
-            }
+        // Server-side search, re-run once typing pauses
+        SearchDebouncer.install(searchField, text -> {
+            carsQuery = text;
+            loadCarsData(model);
         });
 
         JScrollPane scrollPane = new JScrollPane(modernTable);
@@ -701,14 +679,31 @@ public class AdminDashboard extends JPanel {
     }
 
     private void loadCarsData(DefaultTableModel model, ActionButton refreshButton) {
+        // A newer load supersedes this one: stop its query and drop its result
+        if (carsSearch != null) {
+            carsSearch.cancel();
+        }
+        QueryHandle handle = new QueryHandle();
+        carsSearch = handle;
+        String query = carsQuery;
         SwingWorker<List<Car>, Void> worker = new SwingWorker<List<Car>, Void>() {
             @Override
             protected List<Car> doInBackground() throws Exception {
-                return carDAO.getAllCars();
+                // Table shows scalar columns only; details are fetched by id on demand
+                if (query.isEmpty()) {
+                    return carDAO.getAllCars(dao.Projection.SUMMARY);
+                }
+                return carDAO.searchCars(query, false, dao.Projection.SUMMARY, SEARCH_LIMIT, handle);
             }
 
             @Override
             protected void done() {
+                if (handle != carsSearch) {
+                    if (refreshButton != null) {
+                        refreshButton.setLoading(false);
+                    }
+                    return;
+                }
                 try {
                     List<Car> cars = get();
                     model.setRowCount(0); // Clear existing data
@@ -755,9 +750,17 @@ public class AdminDashboard extends JPanel {
 
         // Modern table with StatusBadge for booking status
         String[] columnNames = {"ID", "User", "Car", "Start Date", "End Date", "Status", "Total Price"};
-        ModernTable modernTable = new ModernTable(columnNames);
+        // Virtual model: rows are fetched page by page as they scroll into view
+        KeysetPageSource<BookingView, dao.PageCursor> source = new KeysetPageSource<>(
+                bookingDAO::countBookings,
+                (cursor, limit) -> bookingDAO.getBookingViewsPage(cursor, limit).getItems(),
+                bookingDAO::getBookingViews,
+                b -> b.getCreatedAt() != null ? dao.PageCursor.after(b.getCreatedAt(), b.getId()) : null,
+                this::toBookingRow);
+        VirtualTableModel model = new VirtualTableModel(columnNames, source, TABLE_PAGE_SIZE, TABLE_MAX_PAGES);
+        bookingsModel = model;
+        ModernTable modernTable = new ModernTable(model);
         JTable table = modernTable.getTable();
-        DefaultTableModel model = modernTable.getModel();
 
         // Custom renderer for Status column to show StatusBadge
         table.getColumnModel().getColumn(5).setCellRenderer(new TableCellRenderer() {
@@ -772,7 +775,10 @@ public class AdminDashboard extends JPanel {
                     panel.setBackground(row % 2 == 0 ? new Color(30, 30, 30) : new Color(35, 35, 35));
                 }
                 
-                String status = value != null ? value.toString().toLowerCase() : "";
+                if (value == null) {
+                    return panel; // row not loaded yet
+                }
+                String status = value.toString().toLowerCase();
                 StatusBadge badge;
                 switch (status) {
                     case "pending":
@@ -812,11 +818,13 @@ public class AdminDashboard extends JPanel {
         approveBtn.addActionListener(e -> {
             int row = table.getSelectedRow();
             if (row >= 0) {
-                int modelRow = table.convertRowIndexToModel(row);
-                int id = (int) model.getValueAt(modelRow, 0);
+                Integer id = selectedBookingId(model, table.convertRowIndexToModel(row), panel);
+                if (id == null) {
+                    return;
+                }
                 if (bookingService.approveBooking(id)) {
                     Toast.success(panel, "Booking approved.");
-                    loadBookingsData(model, null);
+                    bookingsModel.refresh(null);
                     refreshTopStats();
                 } else {
                     Toast.error(panel, "Failed to approve booking.");
@@ -830,11 +838,13 @@ public class AdminDashboard extends JPanel {
         startBtn.addActionListener(e -> {
             int row = table.getSelectedRow();
             if (row >= 0) {
-                int modelRow = table.convertRowIndexToModel(row);
-                int id = (int) model.getValueAt(modelRow, 0);
+                Integer id = selectedBookingId(model, table.convertRowIndexToModel(row), panel);
+                if (id == null) {
+                    return;
+                }
                 if (bookingService.startBooking(id)) {
                     Toast.success(panel, "Booking started.");
-                    loadBookingsData(model, null);
+                    bookingsModel.refresh(null);
                     refreshTopStats();
                 } else {
                     Toast.error(panel, "Failed to start booking.");
@@ -848,11 +858,13 @@ public class AdminDashboard extends JPanel {
         completeBtn.addActionListener(e -> {
             int row = table.getSelectedRow();
             if (row >= 0) {
-                int modelRow = table.convertRowIndexToModel(row);
-                int id = (int) model.getValueAt(modelRow, 0);
+                Integer id = selectedBookingId(model, table.convertRowIndexToModel(row), panel);
+                if (id == null) {
+                    return;
+                }
                 if (bookingService.completeBooking(id)) {
                     Toast.success(panel, "Booking completed.");
-                    loadBookingsData(model, null);
+                    bookingsModel.refresh(null);
                     refreshTopStats();
                 } else {
                     Toast.error(panel, "Failed to complete booking.");
@@ -866,13 +878,15 @@ public class AdminDashboard extends JPanel {
         cancelBtn.addActionListener(e -> {
             int row = table.getSelectedRow();
             if (row >= 0) {
-                int modelRow = table.convertRowIndexToModel(row);
-                int id = (int) model.getValueAt(modelRow, 0);
+                Integer id = selectedBookingId(model, table.convertRowIndexToModel(row), panel);
+                if (id == null) {
+                    return;
+                }
                 int confirm = JOptionPane.showConfirmDialog(panel, "Cancel booking #" + id + "?", "Confirm", JOptionPane.YES_NO_OPTION);
                 if (confirm == JOptionPane.YES_OPTION) {
                     if (bookingService.cancelBooking(id)) {
                         Toast.success(panel, "Booking cancelled.");
-                        loadBookingsData(model, null);
+                        bookingsModel.refresh(null);
                         refreshTopStats();
                     } else {
                         Toast.error(panel, "Failed to cancel booking.");
@@ -886,7 +900,7 @@ public class AdminDashboard extends JPanel {
         ActionButton refreshBtn = new ActionButton("Refresh", ActionButton.Type.GHOST);
         refreshBtn.addActionListener(e -> {
             refreshBtn.setLoading(true);
-            loadBookingsData(model, refreshBtn);
+            bookingsModel.refresh(() -> refreshBtn.setLoading(false));
             // Also refresh top stats to reflect any changes
             refreshTopStats();
         });
@@ -899,8 +913,8 @@ public class AdminDashboard extends JPanel {
         toolbar.add(refreshBtn);
         panel.add(toolbar, BorderLayout.SOUTH);
 
-        // Load bookings data
-        loadBookingsData(model, refreshBtn);
+        // Load the first page of bookings
+        bookingsModel.refresh(() -> refreshBtn.setLoading(false));
 
         return panel;
     }
@@ -921,51 +935,21 @@ public class AdminDashboard extends JPanel {
         return new java.text.DecimalFormat("#,##0.00").format(amount);
     }
 
-    private void loadBookingsData(DefaultTableModel model) {
-        loadBookingsData(model, null);
-    }
-
-    private void loadBookingsData(DefaultTableModel model, ActionButton refreshButton) {
-        SwingWorker<List<Booking>, Void> worker = new SwingWorker<List<Booking>, Void>() {
-            @Override
-            protected List<Booking> doInBackground() throws Exception {
-                return bookingDAO.getAllBookings();
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    List<Booking> bookings = get();
-                    model.setRowCount(0);
-                    for (Booking booking : bookings) {
-                        // Enrich with readable user and car names
-                        models.User u = userDAO.getById(booking.getUserId());
-                        models.Car c = carDAO.getById(booking.getCarId());
-                        String userName = u != null ? u.getUsername() : ("User #" + booking.getUserId());
-                        String carName = c != null ? (c.getMake() + " " + c.getModel()) : ("Car #" + booking.getCarId());
-                        String userCode = utils.DisplayCodeUtil.codeFromName(userName);
-                        String carCode = utils.DisplayCodeUtil.codeFromName(c != null ? c.getModel() : carName);
-                        model.addRow(new Object[]{
-                            booking.getId(),
-                            userName + " (" + userCode + ")",
-                            carName + " (" + carCode + ")",
-                            booking.getStartDate(),
-                            booking.getEndDate(),
-                            booking.getStatus(),
-                            "₹" + booking.getTotalPrice()
-                        });
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    JOptionPane.showMessageDialog(null, "Error loading bookings: " + e.getMessage());
-                } finally {
-                    if (refreshButton != null) {
-                        refreshButton.setLoading(false);
-                    }
-                }
-            }
+    private Object[] toBookingRow(BookingView booking) {
+        String userName = booking.getUsername() != null ? booking.getUsername() : ("User #" + booking.getUserId());
+        boolean carFound = booking.getCarModel() != null;
+        String carName = carFound ? (booking.getCarMake() + " " + booking.getCarModel()) : ("Car #" + booking.getCarId());
+        String userCode = utils.DisplayCodeUtil.codeFromName(userName);
+        String carCode = utils.DisplayCodeUtil.codeFromName(carFound ? booking.getCarModel() : carName);
+        return new Object[]{
+            booking.getId(),
+            userName + " (" + userCode + ")",
+            carName + " (" + carCode + ")",
+            booking.getStartDate(),
+            booking.getEndDate(),
+            booking.getStatus(),
+            "₹" + booking.getTotalPrice()
         };
-        worker.execute();
     }
 
     private void showLogoutDialog() {
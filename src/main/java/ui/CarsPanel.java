@@ -1,18 +1,24 @@
 package ui;
 
 import dao.CarDAO;
+import dao.Projection;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import models.Car;
 import ui.components.CarDetailsDialog;
 import ui.components.CarFormDialog;
+import ui.components.PageSource;
+import ui.components.VirtualTableModel;
 
 public class CarsPanel extends JPanel {
 
-    private DefaultTableModel tableModel;
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 10;
+
+    private final CarDAO carDAO = new CarDAO();
+    private VirtualTableModel tableModel;
     private JTable carsTable;
 
     public CarsPanel() {
@@ -51,12 +57,31 @@ public class CarsPanel extends JPanel {
 
         // Table setup
         String[] columnNames = {"ID", "Make", "Model", "Year", "License Plate", "Status", "Price/Day", "KM Driven"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
+        // Virtual model: only the visible pages of cars are fetched and kept
+        tableModel = new VirtualTableModel(columnNames, new PageSource() {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table non-editable
+            public int count() {
+                return carDAO.countCars();
+            }
+
+            @Override
+            public List<Object[]> fetch(int offset, int limit) {
+                List<Object[]> rows = new ArrayList<>();
+                for (Car car : carDAO.getCars(Projection.SUMMARY, offset, limit)) {
+                    rows.add(new Object[]{
+                        car.getId(),
+                        car.getMake(),
+                        car.getModel(),
+                        car.getYear(),
+                        car.getLicensePlate(),
+                        car.getStatus(),
+                        "₹" + car.getPricePerDay(),
+                        car.getTotalKmDriven() + " km"
+                    });
+                }
+                return rows;
             }
-        };
+        }, PAGE_SIZE, MAX_CACHED_PAGES);
 
         carsTable = new JTable(tableModel);
         carsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -151,6 +176,19 @@ public class CarsPanel extends JPanel {
         }
     }
 
+    /**
+     * Id of the selected car, or null (with a message) while its row is
+     * still loading.
+     */
+    private Integer selectedCarId(int selectedRow) {
+        Object id = tableModel.getRowKey(selectedRow);
+        if (id == null) {
+            JOptionPane.showMessageDialog(this, "The selected row is still loading. Please try again.", "Loading", JOptionPane.INFORMATION_MESSAGE);
+            return null;
+        }
+        return (Integer) id;
+    }
+
     private void showEditCarDialog() {
         int selectedRow = carsTable.getSelectedRow();
         if (selectedRow == -1) {
@@ -158,7 +196,10 @@ public class CarsPanel extends JPanel {
             return;
         }
 
-        int carId = (Integer) tableModel.getValueAt(selectedRow, 0);
+        Integer carId = selectedCarId(selectedRow);
+        if (carId == null) {
+            return;
+        }
         try {
             CarDAO dao = new CarDAO();
             Car car = dao.getById(carId);
@@ -227,7 +268,10 @@ public class CarsPanel extends JPanel {
             return;
         }
 
-        int carId = (Integer) tableModel.getValueAt(selectedRow, 0);
+        Integer carId = selectedCarId(selectedRow);
+        if (carId == null) {
+            return;
+        }
         try {
             CarDAO dao = new CarDAO();
             Car car = dao.getById(carId);
@@ -246,8 +290,13 @@ public class CarsPanel extends JPanel {
             return;
         }
 
-        int carId = (Integer) tableModel.getValueAt(selectedRow, 0);
-        String carInfo = tableModel.getValueAt(selectedRow, 1) + " " + tableModel.getValueAt(selectedRow, 2);
+        Integer carId = selectedCarId(selectedRow);
+        if (carId == null) {
+            return;
+        }
+        String carInfo = tableModel.isLoaded(selectedRow)
+                ? tableModel.getValueAt(selectedRow, 1) + " " + tableModel.getValueAt(selectedRow, 2)
+                : "car #" + carId;
 
         int result = JOptionPane.showConfirmDialog(this,
                 "Are you sure you want to delete " + carInfo + "?",
@@ -267,29 +316,6 @@ public class CarsPanel extends JPanel {
     }
 
     private void loadCarsData() {
-        try {
-            CarDAO dao = new CarDAO();
-            List<Car> cars = dao.getAllCars();
-
-            // Clear existing data
-            tableModel.setRowCount(0);
-
-            // Add cars to table
-            for (Car car : cars) {
-                Object[] rowData = {
-                    car.getId(),
-                    car.getMake(),
-                    car.getModel(),
-                    car.getYear(),
-                    car.getLicensePlate(),
-                    car.getStatus(),
-                    "₹" + car.getPricePerDay(),
-                    car.getTotalKmDriven() + " km"
-                };
-                tableModel.addRow(rowData);
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Failed to load cars: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        tableModel.refresh(null);
     }
 }
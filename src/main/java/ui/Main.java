@@ -6,15 +6,18 @@ import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 import services.AuthService;
+import services.SessionReaper;
 import utils.DatabaseSeeder;
 import utils.ModernTheme;
+import utils.SchemaCapabilities;
 
 /**
  * Main entry point for RENTOPS-AI application
  * 
  * Initialization sequence:
  * 1. Apply modern dark theme (FlatLaf)
- * 2. Seed database with initial data if needed
+ * 2. Seed database with initial data if needed (background), probe schema capabilities,
+ *    start the background session reaper
  * 3. Launch main frame with login screen
  * 4. Auto-restore previous session if available
  */
@@ -25,12 +28,14 @@ public class Main {
         System.out.println("Initializing modern theme...");
         ModernTheme.initialize();
         
-        // STEP 2: Seed cars before launching UI (non-blocking safety)
-        try {
-            DatabaseSeeder.seedCarsIfNeeded();
-        } catch (Exception e) {
-            System.err.println("Startup seeding failed: " + e.getMessage());
-        }
+        // STEP 2: Seed cars in the background so the UI is not held up
+        DatabaseSeeder.seedCarsInBackground();
+
+        // Probe optional schema columns once so DAOs skip per-query metadata checks
+        SchemaCapabilities.get();
+
+        // Delete expired / logged-out sessions in small chunks in the background
+        SessionReaper.shared().start();
         
         // STEP 3: Launch UI on EDT
         SwingUtilities.invokeLater(() -> new RentopsAIMainFrame().setVisible(true));
@@ -2,6 +2,7 @@ package ui;
 
 import dao.CarDAO;
 import dao.BookingDAO;
+import dao.QueryHandle;
 import models.Car;
 import models.Booking;
 import services.AuthService;
@@ -10,7 +11,6 @@ import utils.ModernTheme;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.util.List;
@@ -26,6 +26,10 @@ public class UserDashboard extends JPanel {
     private JPanel contentPanel;
     private CardLayout parentCardLayout;
     private JPanel parentCardPanel;
+    // Browse search box text; empty means all available cars
+    private static final int SEARCH_LIMIT = 500;
+    private String browseQuery = "";
+    private QueryHandle browseSearch;
 
     // Profile value labels for refresh
     private JLabel lblProfileUsernameValue;
@@ -289,7 +293,7 @@ public class UserDashboard extends JPanel {
                 // Get user's active bookings
                 if (authService != null && authService.getCurrentUser() != null) {
                     int userId = authService.getCurrentUser().getId();
-                    List<Booking> userBookings = bookingDAO.getBookingsByUserId(userId);
+                    List<Booking> userBookings = bookingDAO.getBookingsByUserId(userId, dao.Projection.SUMMARY);
                     activeBookings = (int) userBookings.stream()
                         .filter(b -> "pending".equalsIgnoreCase(b.getStatus()) || "active".equalsIgnoreCase(b.getStatus()))
                         .count();
@@ -301,7 +305,7 @@ public class UserDashboard extends JPanel {
                         .sum();
                 }
                 // Get available cars count
-                List<Car> cars = carDAO.getAvailableCars();
+                List<Car> cars = carDAO.getAvailableCars(dao.Projection.SUMMARY);
                 availableCars = cars.size();
                 return null;
             }
@@ -352,7 +356,7 @@ public class UserDashboard extends JPanel {
         String[] columnNames = {"ID", "Code", "Make", "Model", "Year", "Total KM Driven", "Price/Day", "Status", "Specs"};
         
         ModernTable modernTable = new ModernTable(columnNames, false);
-        DefaultTableModel tableModel = modernTable.getModel();
+        DefaultTableModel tableModel = modernTable.getDefaultModel();
         JTable table = modernTable.getTable();
         table.removeColumn(table.getColumnModel().getColumn(0)); // hide ID
         
@@ -490,20 +494,11 @@ public class UserDashboard extends JPanel {
             }
         });
 
-        // Search functionality
+        // Search functionality: server-side, re-run once typing pauses
         JTextField searchField = ModernTheme.getSearchField(searchBar);
-        searchField.addKeyListener(new java.awt.event.KeyAdapter() {
-            @Override
-            public void keyReleased(java.awt.event.KeyEvent e) {
-                String query = searchField.getText().toLowerCase().trim();
-                TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(tableModel);
-                table.setRowSorter(sorter);
-                if (query.isEmpty()) {
-                    sorter.setRowFilter(null);
-                } else {
-                    sorter.setRowFilter(RowFilter.regexFilter("(?i)" + query));
-                }
-            }
+        SearchDebouncer.install(searchField, text -> {
+            browseQuery = text;
+            loadAvailableCars(tableModel);
         });
 
         // Load available cars
@@ -513,14 +508,28 @@ public class UserDashboard extends JPanel {
     }
 
     private void loadAvailableCars(DefaultTableModel model) {
+        // A newer load supersedes this one: stop its query and drop its result
+        if (browseSearch != null) {
+            browseSearch.cancel();
+        }
+        QueryHandle handle = new QueryHandle();
+        browseSearch = handle;
+        String query = browseQuery;
         SwingWorker<List<Car>, Void> worker = new SwingWorker<List<Car>, Void>() {
             @Override
             protected List<Car> doInBackground() throws Exception {
-                return carDAO.getAvailableCars();
+                // Table needs specs but not the image lists
+                if (query.isEmpty()) {
+                    return carDAO.getAvailableCars(dao.Projection.LISTING);
+                }
+                return carDAO.searchCars(query, true, dao.Projection.LISTING, SEARCH_LIMIT, handle);
             }
 
             @Override
             protected void done() {
+                if (handle != browseSearch) {
+                    return;
+                }
                 try {
                     List<Car> cars = get();
                     model.setRowCount(0);
@@ -576,7 +585,7 @@ public class UserDashboard extends JPanel {
         String[] columnNames = {"Booking ID", "Car", "Start Date", "End Date", "Status", "Total Price"};
         
         ModernTable modernTable = new ModernTable(columnNames, false);
-        DefaultTableModel tableModel = modernTable.getModel();
+        DefaultTableModel tableModel = modernTable.getDefaultModel();
         JTable table = modernTable.getTable();
         
         JScrollPane scrollPane = new JScrollPane(table);
@@ -628,12 +637,13 @@ public class UserDashboard extends JPanel {
     }
 
     private void loadUserBookings(DefaultTableModel model) {
-        SwingWorker<List<models.Booking>, Void> worker = new SwingWorker<List<models.Booking>, Void>() {
+        SwingWorker<List<models.BookingView>, Void> worker = new SwingWorker<List<models.BookingView>, Void>() {
             @Override
-            protected List<models.Booking> doInBackground() throws Exception {
+            protected List<models.BookingView> doInBackground() throws Exception {
                 if (authService != null && authService.getCurrentUser() != null) {
                     int userId = authService.getCurrentUser().getId();
-                    return bookingDAO.getBookingsByUserId(userId);
+                    // Car make/model/year come from the same joined query
+                    return bookingDAO.getBookingsWithCarsByUserId(userId);
                 }
                 return java.util.Collections.emptyList();
             }
@@ -641,11 +651,12 @@ public class UserDashboard extends JPanel {
             @Override
             protected void done() {
                 try {
-                    List<models.Booking> bookings = get();
+                    List<models.BookingView> bookings = get();
                     model.setRowCount(0);
-                    for (models.Booking booking : bookings) {
-                        models.Car car = carDAO.getById(booking.getCarId());
-                        String carName = car != null ? car.getMake() + " " + car.getModel() + " " + car.getYear() : "Car ID " + booking.getCarId();
+                    for (models.BookingView booking : bookings) {
+                        String carName = booking.getCarModel() != null
+                                ? booking.getCarMake() + " " + booking.getCarModel() + " " + booking.getCarYear()
+                                : "Car ID " + booking.getCarId();
                         model.addRow(new Object[]{
                             booking.getId(),
                             carName,
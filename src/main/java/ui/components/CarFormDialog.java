@@ -20,7 +20,8 @@ public class CarFormDialog extends JDialog {
     
     public CarFormDialog(Component parent, String title, Car car) {
         super((Frame) SwingUtilities.getWindowAncestor(parent), title, true);
-        this.car = car;
+        // Edit a copy so a failed or cancelled save leaves the caller's car untouched
+        this.car = car != null ? new Car(car) : null;
         setSize(700, 700);
         setLocationRelativeTo(parent);
         
@@ -0,0 +1,91 @@
+package ui.components;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * PageSource over a DAO that supports both keyset and OFFSET queries.
+ *
+ * After each page it remembers the key of the last row, so the page that
+ * follows (the usual case while scrolling) is read with an index range
+ * scan from that key. Pages with no remembered key, e.g. after dragging the
+ * scroll thumb far down, fall back to LIMIT/OFFSET.
+ *
+ * @param <T> model type returned by the DAO
+ * @param <K> keyset cursor type
+ */
+public class KeysetPageSource<T, K> implements PageSource {
+
+    private static final int MAX_REMEMBERED_KEYS = 1024;
+
+    private final IntSupplier count;
+    private final BiFunction<K, Integer, List<T>> after;
+    private final BiFunction<Integer, Integer, List<T>> atOffset;
+    private final Function<T, K> keyOf;
+    private final Function<T, Object[]> toRow;
+    // offset of a page start -> key of the row just before it
+    private final Map<Integer, K> keys = new LinkedHashMap<Integer, K>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, K> eldest) {
+            return size() > MAX_REMEMBERED_KEYS;
+        }
+    };
+
+    /**
+     * @param after    rows after a key (null key = first page), at most limit
+     * @param atOffset rows at an offset, at most limit, in the same order
+     * @param keyOf    key of a row, or null if it cannot be keyed past
+     */
+    public KeysetPageSource(IntSupplier count, BiFunction<K, Integer, List<T>> after,
+            BiFunction<Integer, Integer, List<T>> atOffset, Function<T, K> keyOf, Function<T, Object[]> toRow) {
+        this.count = count;
+        this.after = after;
+        this.atOffset = atOffset;
+        this.keyOf = keyOf;
+        this.toRow = toRow;
+    }
+
+    @Override
+    public int count() {
+        synchronized (keys) {
+            // Rows may have moved; old keys are only valid for the old count
+            keys.clear();
+        }
+        return count.getAsInt();
+    }
+
+    @Override
+    public List<Object[]> fetch(int offset, int limit) {
+        K key;
+        synchronized (keys) {
+            key = keys.get(offset);
+        }
+        List<T> items;
+        if (offset == 0) {
+            items = after.apply(null, limit);
+        } else if (key != null) {
+            items = after.apply(key, limit);
+        } else {
+            items = atOffset.apply(offset, limit);
+        }
+
+        if (!items.isEmpty()) {
+            K last = keyOf.apply(items.get(items.size() - 1));
+            if (last != null) {
+                synchronized (keys) {
+                    keys.put(offset + items.size(), last);
+                }
+            }
+        }
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (T item : items) {
+            rows.add(toRow.apply(item));
+        }
+        return rows;
+    }
+}
@@ -53,9 +53,12 @@ public class ModernTable extends JTable {
         });
     }
     
-    @Override
-    public DefaultTableModel getModel() {
-        return tableModel != null ? tableModel : (DefaultTableModel) super.getModel();
+    /**
+     * The backing DefaultTableModel, or null when the table was built on
+     * another model (e.g. a {@link VirtualTableModel}).
+     */
+    public DefaultTableModel getDefaultModel() {
+        return tableModel;
     }
     
     public JTable getTable() {
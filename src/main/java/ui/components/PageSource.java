@@ -0,0 +1,20 @@
+package ui.components;
+
+import java.util.List;
+
+/**
+ * Row source for {@link VirtualTableModel}. Both methods are called off the
+ * EDT and may be called concurrently.
+ */
+public interface PageSource {
+
+    /**
+     * Total number of rows.
+     */
+    int count();
+
+    /**
+     * Rows [offset, offset + limit) as table row arrays; fewer at the end.
+     */
+    List<Object[]> fetch(int offset, int limit);
+}
@@ -0,0 +1,146 @@
+package ui.components;
+
+import dao.Page;
+import dao.PageCursor;
+import dao.QueryHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.SwingWorker;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Fills a table page by page from a keyset-paginated DAO query, fetching
+ * the next page when the user scrolls near the bottom.
+ *
+ * Pages are fetched and converted to rows on a SwingWorker; the model is
+ * only touched on the EDT. {@link #reload} starts over from the first page,
+ * cancels the query still in flight for the previous load and discards its
+ * result.
+ */
+public class PagedTableLoader<T> {
+
+    /**
+     * Fetches one page; {@code handle} cancels the query when the load is
+     * superseded.
+     */
+    @FunctionalInterface
+    public interface Fetch<T> {
+
+        Page<T> fetch(PageCursor after, int limit, QueryHandle handle);
+    }
+
+    private static final int LOAD_AHEAD_PX = 200;
+
+    private final DefaultTableModel model;
+    private final Fetch<T> fetch;
+    private final Function<T, Object[]> toRow;
+    private final int pageSize;
+    private final String label;
+
+    private PageCursor next;
+    private boolean hasMore;
+    private boolean loading;
+    private int generation;
+    private QueryHandle inFlight;
+
+    public PagedTableLoader(DefaultTableModel model, int pageSize, String label,
+            Fetch<T> fetch, Function<T, Object[]> toRow) {
+        this.model = model;
+        this.pageSize = pageSize;
+        this.label = label;
+        this.fetch = fetch;
+        this.toRow = toRow;
+    }
+
+    /**
+     * Loads the next page whenever the scroll pane gets close to the end.
+     */
+    public void attach(JScrollPane scrollPane) {
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        bar.addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting() && bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - LOAD_AHEAD_PX) {
+                loadMore();
+            }
+        });
+    }
+
+    /**
+     * Clears the table and loads the first page.
+     */
+    public void reload(ActionButton refreshButton) {
+        generation++;
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+        next = null;
+        hasMore = true;
+        loading = false;
+        fetchPage(true, refreshButton);
+    }
+
+    public void loadMore() {
+        if (!loading && hasMore) {
+            fetchPage(false, null);
+        }
+    }
+
+    private void fetchPage(boolean first, ActionButton refreshButton) {
+        loading = true;
+        int gen = generation;
+        PageCursor cursor = next;
+        QueryHandle handle = new QueryHandle();
+        inFlight = handle;
+        SwingWorker<List<Object[]>, Void> worker = new SwingWorker<List<Object[]>, Void>() {
+            private PageCursor pageNext;
+
+            @Override
+            protected List<Object[]> doInBackground() {
+                Page<T> page = fetch.fetch(cursor, pageSize, handle);
+                pageNext = page.getNext();
+                List<Object[]> rows = new ArrayList<>(page.getItems().size());
+                for (T item : page.getItems()) {
+                    rows.add(toRow.apply(item));
+                }
+                return rows;
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) {
+                    // Superseded by a reload
+                    if (refreshButton != null) {
+                        refreshButton.setLoading(false);
+                    }
+                    return;
+                }
+                inFlight = null;
+                try {
+                    List<Object[]> rows = get();
+                    if (first) {
+                        model.setRowCount(0);
+                    }
+                    for (Object[] row : rows) {
+                        model.addRow(row);
+                    }
+                    next = pageNext;
+                    hasMore = pageNext != null;
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    hasMore = false;
+                    JOptionPane.showMessageDialog(null, "Error loading " + label + ": " + e.getMessage());
+                } finally {
+                    loading = false;
+                    if (refreshButton != null) {
+                        refreshButton.setLoading(false);
+                    }
+                }
+            }
+        };
+        worker.execute();
+    }
+}
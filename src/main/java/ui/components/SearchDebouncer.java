@@ -0,0 +1,53 @@
+package ui.components;
+
+import java.util.function.Consumer;
+import javax.swing.JTextField;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Calls back with the search text once the user has stopped typing for a
+ * short delay, so a server-side search runs once per pause instead of once
+ * per keystroke. The callback runs on the EDT with the trimmed text.
+ */
+public final class SearchDebouncer {
+
+    public static final int DEFAULT_DELAY_MS = 300;
+
+    private SearchDebouncer() {
+    }
+
+    public static void install(JTextField field, Consumer<String> onSearch) {
+        install(field, DEFAULT_DELAY_MS, onSearch);
+    }
+
+    public static void install(JTextField field, int delayMs, Consumer<String> onSearch) {
+        String[] last = {field.getText().trim()};
+        Timer timer = new Timer(delayMs, e -> {
+            String text = field.getText().trim();
+            // Ignore edits that end up where we started (e.g. type + delete)
+            if (!text.equals(last[0])) {
+                last[0] = text;
+                onSearch.accept(text);
+            }
+        });
+        timer.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                timer.restart();
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package ui.components;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Read-only TableModel that pulls rows from a {@link PageSource} on demand.
+ *
+ * Only the row count is loaded up front. When the table asks for a cell on
+ * a page that is not cached, the page is fetched on a SwingWorker and the
+ * cell reads as null until it arrives; the page's rows are then repainted.
+ * At most {@code maxPages} pages are kept (least recently read evicted),
+ * so memory stays bounded however large the table is.
+ *
+ * Nothing is kept per row outside the cached pages: keyset boundaries are
+ * the {@link PageSource}'s business (see {@link KeysetPageSource}), and
+ * {@link #getRowKey(int)} returns null for a row whose page was evicted
+ * until it has been fetched again.
+ *
+ * All methods must be called on the EDT. Row sorters and filters read
+ * every row, so do not install one on a virtual table.
+ */
+public class VirtualTableModel extends AbstractTableModel {
+
+    private final String[] columnNames;
+    private final PageSource source;
+    private final int pageSize;
+    private final Map<Integer, List<Object[]>> pages;
+    private final Set<Integer> pending = new HashSet<>();
+    private final int keyColumn;
+    private int rowCount;
+    private int generation;
+
+    public VirtualTableModel(String[] columnNames, PageSource source, int pageSize, int maxPages) {
+        this(columnNames, source, pageSize, maxPages, 0);
+    }
+
+    public VirtualTableModel(String[] columnNames, PageSource source, int pageSize, int maxPages, int keyColumn) {
+        this.keyColumn = keyColumn;
+        this.columnNames = columnNames;
+        this.source = source;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<Integer, List<Object[]>>(maxPages + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Re-reads the row count and drops all cached pages.
+     *
+     * @param onDone run on the EDT once the new count is in (may be null)
+     */
+    public void refresh(Runnable onDone) {
+        int gen = ++generation;
+        pending.clear();
+        SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return source.count();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    if (gen == generation) {
+                        rowCount = get();
+                        pages.clear();
+                        fireTableDataChanged();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    if (onDone != null) {
+                        onDone.run();
+                    }
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / pageSize;
+        List<Object[]> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return null;
+        }
+        int i = rowIndex % pageSize;
+        return i < rows.size() ? rows.get(i)[columnIndex] : null;
+    }
+
+    /**
+     * Key column value of the row, or null if its page is not cached (the
+     * page is then requested). Callers acting on a selected row should use
+     * this and treat null as "still loading".
+     */
+    public Object getRowKey(int rowIndex) {
+        return getValueAt(rowIndex, keyColumn);
+    }
+
+    /**
+     * True when the row's page is cached, i.e. every column can be read.
+     */
+    public boolean isLoaded(int rowIndex) {
+        return pages.containsKey(rowIndex / pageSize);
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+
+    private void requestPage(int page) {
+        if (!pending.add(page)) {
+            return;
+        }
+        int gen = generation;
+        SwingWorker<List<Object[]>, Void> worker = new SwingWorker<List<Object[]>, Void>() {
+            @Override
+            protected List<Object[]> doInBackground() {
+                return source.fetch(page * pageSize, pageSize);
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) {
+                    return; // refreshed meanwhile
+                }
+                pending.remove(page);
+                try {
+                    List<Object[]> rows = get();
+                    pages.put(page, rows);
+                    int first = page * pageSize;
+                    int last = Math.min(first + pageSize, rowCount) - 1;
+                    if (last >= first) {
+                        fireTableRowsUpdated(first, last);
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        worker.execute();
+    }
+}
@@ -0,0 +1,123 @@
+package utils;
+
+import dao.BookingDAO;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import models.Booking;
+
+/**
+ * Compares booking throughput of the locking and optimistic paths of
+ * BookingDAO.createBookingTransactional when many threads book the same car.
+ *
+ * Every request uses its own one-day window far in the future, so all of
+ * them should succeed; the difference is how long they wait on each other.
+ * Bookings created by a run are deleted afterwards.
+ *
+ * Usage: BookingContentionBenchmark [threads] [bookingsPerThread]
+ */
+public class BookingContentionBenchmark {
+
+    private static final LocalDate BASE_DAY = LocalDate.of(2100, 1, 1);
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 25;
+
+        int[] ids = pickUserAndCar();
+        if (ids == null) {
+            System.out.println("Need at least one user and one car in the database");
+            return;
+        }
+        int userId = ids[0];
+        int carId = ids[1];
+        if (!SchemaCapabilities.get().hasColumn("cars", "booking_version")) {
+            System.out.println("cars.booking_version is missing; run SchemaUpdater or sql/migrations/add_booking_version.sql first");
+            return;
+        }
+
+        System.out.println("Booking contention: " + threads + " threads x " + perThread + " bookings on car " + carId);
+        cleanup(carId);
+        // Warm the pool and JIT once per path before measuring
+        run(new BookingDAO(BookingDAO.ConcurrencyMode.LOCKING), userId, carId, threads, 2, false);
+        run(new BookingDAO(BookingDAO.ConcurrencyMode.OPTIMISTIC), userId, carId, threads, 2, false);
+
+        for (BookingDAO.ConcurrencyMode mode : BookingDAO.ConcurrencyMode.values()) {
+            run(new BookingDAO(mode), userId, carId, threads, perThread, true);
+        }
+    }
+
+    private static void run(BookingDAO dao, int userId, int carId, int threads, int perThread, boolean report) throws Exception {
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    LocalDate day = BASE_DAY.plusDays((long) thread * perThread + i);
+                    Booking booking = new Booking(0, userId, carId, day, day, "pending",
+                            BigDecimal.ONE, LocalDateTime.now());
+                    if (dao.createBookingTransactional(booking)) {
+                        ok.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        pool.shutdown();
+        cleanup(carId);
+
+        if (report) {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            System.out.printf("%-10s %6d ok %4d failed %6d retries %8.1f ms %8.1f bookings/s%n",
+                    dao.getConcurrencyMode(), ok.get(), failed.get(), dao.getOptimisticRetries(),
+                    elapsedNanos / 1_000_000.0, ok.get() / seconds);
+        }
+    }
+
+    private static int[] pickUserAndCar() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT (SELECT MIN(id) FROM users), (SELECT MIN(id) FROM cars)");
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next() && rs.getObject(1) != null && rs.getObject(2) != null) {
+                return new int[]{rs.getInt(1), rs.getInt(2)};
+            }
+        }
+        return null;
+    }
+
+    private static void cleanup(int carId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM bookings WHERE car_id = ? AND start_date >= ?")) {
+            stmt.setInt(1, carId);
+            stmt.setDate(2, Date.valueOf(BASE_DAY));
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small bounded JDBC connection pool used behind {@link DatabaseConnection}.
+ *
+ * Callers receive a proxy {@link Connection}; calling {@code close()} on it
+ * hands the physical connection back to the pool instead of closing the
+ * socket, so existing try-with-resources DAO code works unchanged.
+ *
+ * Features: min/max size, idle eviction, validation on borrow, leak
+ * detection and borrow-wait / active-count metrics.
+ *
+ * Leak detection is off by default because it records a stack trace on
+ * every borrow; set {@code db.pool.leakDetectionThresholdMs} while
+ * debugging. Session settings a borrower changes (autocommit, read-only,
+ * isolation, catalog) are restored before the connection is reused.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long leakDetectionThresholdMs;
+    private final long validationSkipWindowMs;
+    private final int validationTimeoutSec;
+
+    // LIFO: most recently returned connection is handed out first (warm socket)
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<Lease> leased = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowWaitNanos = new LongAdder();
+    private final AtomicLong maxBorrowWaitNanos = new AtomicLong();
+    private final LongAdder borrowTimeouts = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsDestroyed = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+
+    public ConnectionPool(String url, String user, String password, Properties props) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = Math.max(1, intProp(props, "db.pool.maxSize", 10));
+        this.minSize = Math.min(maxSize, Math.max(0, intProp(props, "db.pool.minSize", 2)));
+        this.borrowTimeoutMs = longProp(props, "db.pool.borrowTimeoutMs", 10_000);
+        this.idleTimeoutMs = longProp(props, "db.pool.idleTimeoutMs", 300_000);
+        this.leakDetectionThresholdMs = longProp(props, "db.pool.leakDetectionThresholdMs", 0);
+        this.validationSkipWindowMs = longProp(props, "db.pool.validationSkipWindowMs", 500);
+        this.validationTimeoutSec = intProp(props, "db.pool.validationTimeoutSec", 3);
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1_000, Math.min(30_000, idleTimeoutMs / 2));
+        // First run fills up to minSize in the background so startup never blocks on the DB
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to {@code db.pool.borrowTimeoutMs} when
+     * all {@code maxSize} connections are in use.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMs
+                        + " ms waiting for a pooled connection (active=" + leased.size() + ", max=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+
+        try {
+            PooledConnection pc = takeValidIdle();
+            if (pc == null) {
+                pc = open();
+            }
+            recordBorrowWait(System.nanoTime() - start);
+            Lease lease = new Lease(pc, leakDetectionThresholdMs > 0 ? new Throwable("Connection borrowed here") : null);
+            leased.add(lease);
+            return lease.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (isUsable(pc)) {
+                return pc;
+            }
+            destroy(pc);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        // Skip the ping for connections that were in use a moment ago
+        if (System.currentTimeMillis() - pc.lastReturnedAt < validationSkipWindowMs) {
+            return true;
+        }
+        try {
+            return pc.physical.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        PooledConnection pc;
+        try {
+            pc = new PooledConnection(physical);
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+        totalConnections.incrementAndGet();
+        connectionsCreated.increment();
+        return pc;
+    }
+
+    private void release(Lease lease) {
+        if (!leased.remove(lease)) {
+            return;
+        }
+        PooledConnection pc = lease.pooled;
+        try {
+            if (closed || !reset(pc)) {
+                destroy(pc);
+            } else {
+                pc.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(pc);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Undo per-lease state (open transactions, autocommit, read-only,
+     * isolation, catalog) so the next borrower starts from the same
+     * defaults as a fresh DriverManager connection.
+     */
+    private boolean reset(PooledConnection pc) {
+        try {
+            if (pc.physical.isClosed()) {
+                return false;
+            }
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            if (pc.sessionChanged) {
+                pc.physical.setReadOnly(pc.defaultReadOnly);
+                pc.physical.setTransactionIsolation(pc.defaultIsolation);
+                if (pc.defaultCatalog != null) {
+                    pc.physical.setCatalog(pc.defaultCatalog);
+                }
+                pc.sessionChanged = false;
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("ConnectionPool: Discarding connection that failed to reset: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        totalConnections.decrementAndGet();
+        connectionsDestroyed.increment();
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {
+            // Already broken; nothing else to do
+        }
+    }
+
+    private void recordBorrowWait(long nanos) {
+        borrowCount.increment();
+        borrowWaitNanos.add(nanos);
+        maxBorrowWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void housekeep() {
+        if (closed) {
+            return;
+        }
+        try {
+            evictIdle();
+            detectLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            System.err.println("ConnectionPool: Housekeeping error: " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pc : idle) {
+            if (totalConnections.get() <= minSize) {
+                return;
+            }
+            // removeFirstOccurrence guards against a concurrent borrow of the same entry
+            if (now - pc.lastReturnedAt > idleTimeoutMs && idle.removeFirstOccurrence(pc)) {
+                destroy(pc);
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakDetectionThresholdMs <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Lease lease : leased) {
+            if (!lease.leakReported && now - lease.borrowedAt > leakDetectionThresholdMs) {
+                lease.leakReported = true;
+                leaksDetected.increment();
+                System.err.println("ConnectionPool: Possible connection leak - held for "
+                        + (now - lease.borrowedAt) + " ms by " + lease.ownerThread);
+                if (lease.borrowSite != null) {
+                    lease.borrowSite.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < minSize) {
+            try {
+                PooledConnection pc = open();
+                pc.lastReturnedAt = System.currentTimeMillis();
+                idle.offerLast(pc);
+            } catch (SQLException e) {
+                System.err.println("ConnectionPool: Could not pre-open connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes idle connections and stops housekeeping. Connections still on
+     * loan are closed when their borrowers return them.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+    }
+
+    public Stats getStats() {
+        long borrows = borrowCount.sum();
+        double avgWaitMs = borrows == 0 ? 0.0 : borrowWaitNanos.sum() / (double) borrows / 1_000_000.0;
+        return new Stats(leased.size(), idle.size(), totalConnections.get(), minSize, maxSize,
+                permits.getQueueLength(), borrows, avgWaitMs, maxBorrowWaitNanos.get() / 1_000_000.0,
+                borrowTimeouts.sum(), connectionsCreated.sum(), connectionsDestroyed.sum(), leaksDetected.sum());
+    }
+
+    private static int intProp(Properties props, String key, int def) {
+        return (int) longProp(props, key, def);
+    }
+
+    private static long longProp(Properties props, String key, long def) {
+        String v = props != null ? props.getProperty(key) : null;
+        if (v == null || v.trim().isEmpty()) {
+            return def;
+        }
+        try {
+            return Long.parseLong(v.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("ConnectionPool: Invalid value for " + key + ": " + v + " (using " + def + ")");
+            return def;
+        }
+    }
+
+    /**
+     * One physical connection owned by the pool.
+     */
+    private static final class PooledConnection {
+
+        final Connection physical;
+        final boolean defaultReadOnly;
+        final int defaultIsolation;
+        final String defaultCatalog;
+        volatile long lastReturnedAt;
+        // Set when a borrower changes read-only, isolation or catalog
+        volatile boolean sessionChanged;
+
+        PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultReadOnly = physical.isReadOnly();
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.defaultCatalog = physical.getCatalog();
+            this.lastReturnedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * A single checkout of a pooled connection. Each borrow gets its own
+     * proxy, so a stale reference kept after close() cannot touch the next
+     * borrower's session.
+     */
+    private final class Lease implements InvocationHandler {
+
+        final PooledConnection pooled;
+        final Connection proxy;
+        final long borrowedAt = System.currentTimeMillis();
+        final String ownerThread = Thread.currentThread().getName();
+        final Throwable borrowSite;
+        volatile boolean leakReported;
+        private volatile boolean returned;
+
+        Lease(PooledConnection pooled, Throwable borrowSite) {
+            this.pooled = pooled;
+            this.borrowSite = borrowSite;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection is closed");
+            }
+            switch (method.getName()) {
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                case "setCatalog":
+                case "setSchema":
+                    pooled.sessionChanged = true;
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Point-in-time snapshot of pool metrics.
+     */
+    public static final class Stats {
+
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int minSize;
+        private final int maxSize;
+        private final int waiting;
+        private final long borrowCount;
+        private final double avgBorrowWaitMs;
+        private final double maxBorrowWaitMs;
+        private final long borrowTimeouts;
+        private final long connectionsCreated;
+        private final long connectionsDestroyed;
+        private final long leaksDetected;
+
+        Stats(int active, int idle, int total, int minSize, int maxSize, int waiting, long borrowCount,
+                double avgBorrowWaitMs, double maxBorrowWaitMs, long borrowTimeouts,
+                long connectionsCreated, long connectionsDestroyed, long leaksDetected) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.avgBorrowWaitMs = avgBorrowWaitMs;
+            this.maxBorrowWaitMs = maxBorrowWaitMs;
+            this.borrowTimeouts = borrowTimeouts;
+            this.connectionsCreated = connectionsCreated;
+            this.connectionsDestroyed = connectionsDestroyed;
+            this.leaksDetected = leaksDetected;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getTotal() { return total; }
+        public int getMinSize() { return minSize; }
+        public int getMaxSize() { return maxSize; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowCount() { return borrowCount; }
+        public double getAvgBorrowWaitMs() { return avgBorrowWaitMs; }
+        public double getMaxBorrowWaitMs() { return maxBorrowWaitMs; }
+        public long getBorrowTimeouts() { return borrowTimeouts; }
+        public long getConnectionsCreated() { return connectionsCreated; }
+        public long getConnectionsDestroyed() { return connectionsDestroyed; }
+        public long getLeaksDetected() { return leaksDetected; }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d total=%d/%d waiting=%d borrows=%d avgWait=%.2fms maxWait=%.2fms timeouts=%d leaks=%d",
+                    active, idle, total, maxSize, waiting, borrowCount, avgBorrowWaitMs, maxBorrowWaitMs, borrowTimeouts, leaksDetected);
+        }
+    }
+}
@@ -5,7 +5,9 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DatabaseConnection {
 
@@ -16,6 +18,8 @@ public class DatabaseConnection {
     private static String URL;
     private static String USER;
     private static String PASSWORD;
+    private static ConnectionPool POOL;
+    private static final List<Runnable> SHUTDOWN_TASKS = new CopyOnWriteArrayList<>();
 
     static {
         try (FileInputStream fis = new FileInputStream(CONFIG_PATH)) {
@@ -25,6 +29,12 @@ public class DatabaseConnection {
             PASSWORD = DB_PROPS.getProperty("db.password");
             // Load driver once
             Class.forName("com.mysql.cj.jdbc.Driver");
+            // Pool is on by default; set db.pool.enabled=false to fall back to one connection per call
+            if (!"false".equalsIgnoreCase(DB_PROPS.getProperty("db.pool.enabled", "true").trim())) {
+                POOL = new ConnectionPool(URL, USER, PASSWORD, DB_PROPS);
+            }
+            // One hook so write-behind work is flushed before the pool closes
+            Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnection::shutdown, "db-shutdown"));
         } catch (IOException e) {
             throw new ExceptionInInitializerError("Failed to load DB config: " + e.getMessage());
         } catch (ClassNotFoundException e) {
@@ -35,8 +45,75 @@ public class DatabaseConnection {
     private DatabaseConnection() {
     }
 
-    // Return a new connection each time; config and driver are cached.
+    // Return a pooled connection; close() hands it back to the pool.
     public static Connection getConnection() throws SQLException {
+        if (POOL != null) {
+            return POOL.borrow();
+        }
         return DriverManager.getConnection(URL, USER, PASSWORD);
     }
+
+    /**
+     * Reads an application setting from config/db.properties.
+     */
+    public static String getProperty(String key, String defaultValue) {
+        String value = DB_PROPS.getProperty(key);
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    /**
+     * Reads an integer setting, falling back to the default if it is
+     * missing or not a number.
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(getProperty(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads a long setting, falling back to the default if it is missing or
+     * not a number.
+     */
+    public static long getLongProperty(String key, long defaultValue) {
+        try {
+            return Long.parseLong(getProperty(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Registers work that still needs the database at JVM shutdown (e.g.
+     * draining write-behind queues). Tasks run in registration order,
+     * before the pool is closed. Use this instead of a separate shutdown
+     * hook, which would race the pool shutdown.
+     */
+    public static void onShutdown(Runnable task) {
+        SHUTDOWN_TASKS.add(task);
+    }
+
+    private static void shutdown() {
+        for (Runnable task : SHUTDOWN_TASKS) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Shutdown task failed: " + e.getMessage());
+            }
+        }
+        if (POOL != null) {
+            POOL.shutdown();
+        }
+    }
+
+    /**
+     * Returns current pool metrics, or null when pooling is disabled.
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL != null ? POOL.getStats() : null;
+    }
 }
@@ -35,6 +35,9 @@ public class DatabaseSchemaUpdater {
 
             System.out.println("Database schema update completed successfully!");
 
+            // Let DAOs pick up the new columns without a restart
+            SchemaCapabilities.refresh();
+
         } catch (Exception e) {
             System.err.println("Database schema update failed: " + e.getMessage());
             e.printStackTrace();
@@ -2,25 +2,56 @@ package utils;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
  * Seeds the database with cars from add_new_cars.sql if they are not already
- * present. It parses the INSERT statement, extracts license_plate values, and
- * performs INSERT IGNORE per row.
+ * present.
+ *
+ * The script is read with {@link SqlTokenizer}; every row of its
+ * {@code INSERT INTO cars (...) VALUES (...), (...)} statements is bound to
+ * one {@code INSERT IGNORE} PreparedStatement and sent with
+ * addBatch/executeBatch (a multi-row insert with rewriteBatchedStatements),
+ * all in one transaction. Use {@link #seedCarsInBackground()} at startup so
+ * the UI does not wait for it.
  */
 public class DatabaseSeeder {
 
     // Look for SQL seed script under sql/seeds for better repo hygiene
     private static final String SCRIPT_FILE = "sql/seeds/add_new_cars.sql";
 
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * Runs {@link #seedCarsIfNeeded()} on a daemon thread.
+     */
+    public static Thread seedCarsInBackground() {
+        Thread t = new Thread(() -> {
+            try {
+                seedCarsIfNeeded();
+            } catch (RuntimeException e) {
+                System.err.println("DatabaseSeeder: Background seeding failed: " + e.getMessage());
+            }
+        }, "database-seeder");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
     public static void seedCarsIfNeeded() {
         File f = new File(SCRIPT_FILE);
         if (!f.exists()) {
@@ -29,135 +60,213 @@ public class DatabaseSeeder {
         }
         try (Connection conn = DatabaseConnection.getConnection()) {
             ensureUniqueIndex(conn);
-            if (existingCarCount(conn) >= 40) { // heuristic: already seeded
+            int before = existingCarCount(conn);
+            if (before >= 40) { // heuristic: already seeded
                 System.out.println("DatabaseSeeder: Cars table already populated (>=40). Skipping.");
                 return;
             }
-            String content = readFile(f);
-            int inserted = processMultiInsert(content, conn);
-            System.out.println("DatabaseSeeder: Inserted " + inserted + " car rows (ignore duplicates).");
+            long start = System.currentTimeMillis();
+            try (BufferedReader reader = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+                int rows = seedCars(reader, conn);
+                int inserted = existingCarCount(conn) - before;
+                System.out.println("DatabaseSeeder: Inserted " + inserted + " of " + rows + " car rows (ignore duplicates) in "
+                        + (System.currentTimeMillis() - start) + " ms.");
+            }
         } catch (Exception e) {
             System.err.println("DatabaseSeeder: Error during seeding: " + e.getMessage());
         }
     }
 
-    private static void ensureUniqueIndex(Connection conn) {
-        try (Statement st = conn.createStatement()) {
-            // Check if index already exists
-            DatabaseMetaData meta = conn.getMetaData();
-            ResultSet indexes = meta.getIndexInfo(null, null, "cars", true, false);
-            boolean indexExists = false;
-            while (indexes.next()) {
-                if ("ux_cars_license_plate".equals(indexes.getString("INDEX_NAME"))) {
-                    indexExists = true;
-                    break;
+    /**
+     * Inserts the car rows of every INSERT INTO cars statement in the
+     * script in one transaction; other statements are skipped.
+     *
+     * @return number of rows sent (duplicates are ignored by the database)
+     */
+    static int seedCars(Reader script, Connection conn) throws IOException, SQLException {
+        SqlTokenizer tokens = new SqlTokenizer(script);
+        Set<String> seenPlates = new HashSet<>();
+        int rows = 0;
+        conn.setAutoCommit(false);
+        try {
+            SqlTokenizer.Token t;
+            while ((t = tokens.next()) != null) {
+                if (t.isWord("INSERT")) {
+                    rows += seedInsert(tokens, conn, seenPlates);
+                } else if (!t.isDelimiter()) {
+                    skipStatement(tokens);
                 }
             }
-            if (!indexExists) {
-                st.execute("ALTER TABLE cars ADD UNIQUE INDEX ux_cars_license_plate (license_plate)");
-            }
-        } catch (SQLException e) {
-            if (!e.getMessage().toLowerCase().contains("duplicate")) {
-                System.out.println("DatabaseSeeder: Index creation warning: " + e.getMessage());
-            }
+            conn.commit();
+            return rows;
+        } catch (IOException | SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
         }
     }
 
-    private static int existingCarCount(Connection conn) throws SQLException {
-        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM cars")) {
-            rs.next();
-            return rs.getInt(1);
+    /**
+     * Parses the rest of an INSERT after the INSERT keyword and batches its
+     * rows if it targets cars.
+     */
+    private static int seedInsert(SqlTokenizer tokens, Connection conn, Set<String> seenPlates) throws IOException, SQLException {
+        SqlTokenizer.Token t = tokens.next();
+        if (t != null && t.isWord("IGNORE")) {
+            t = tokens.next();
         }
-    }
-
-    private static String readFile(File f) throws Exception {
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                sb.append(line).append('\n');
+        if (t == null || !t.isWord("INTO")) {
+            return skipStatement(tokens);
+        }
+        SqlTokenizer.Token table = tokens.next();
+        if (table == null || !table.isWord("cars")) {
+            return skipStatement(tokens);
+        }
+        List<String> columns = new ArrayList<>();
+        expect(tokens.next(), '(');
+        while (true) {
+            SqlTokenizer.Token col = tokens.next();
+            if (col == null || col.getType() != SqlTokenizer.Type.WORD) {
+                throw new IOException("Expected column name, got " + col);
+            }
+            columns.add(col.getText());
+            SqlTokenizer.Token sep = tokens.next();
+            if (sep != null && sep.isSymbol(')')) {
+                break;
             }
+            expect(sep, ',');
         }
-        return sb.toString();
-    }
+        SqlTokenizer.Token values = tokens.next();
+        if (values == null || !values.isWord("VALUES")) {
+            throw new IOException("Expected VALUES, got " + values);
+        }
+        int plateIdx = columns.indexOf("license_plate");
 
-    private static int processMultiInsert(String sqlScript, Connection conn) throws Exception {
-        // Find the VALUES (...) blocks
-        int valuesIdx = sqlScript.toUpperCase().indexOf("VALUES");
-        if (valuesIdx < 0) {
-            return 0;
+        StringBuilder sql = new StringBuilder("INSERT IGNORE INTO cars (")
+                .append(String.join(", ", columns)).append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
         }
-        String afterValues = sqlScript.substring(valuesIdx + 6); // skip 'VALUES'
-        // Split on '),'; keep ) inside
-        String[] blocks = afterValues.split("\\),");
-        int inserted = 0;
-        Set<String> seenPlates = new HashSet<>();
-        for (String rawBlock : blocks) {
-            String block = rawBlock.trim();
-            if (block.startsWith("(")) {
-                block = block.substring(1);
+        sql.append(")");
+
+        int rows = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int pending = 0;
+            while (true) {
+                expect(tokens.next(), '(');
+                List<Object> row = readTuple(tokens);
+                if (row.size() != columns.size()) {
+                    throw new IOException("Row with " + row.size() + " values for " + columns.size() + " columns near line " + tokens.getLine());
+                }
+                Object plate = plateIdx >= 0 ? row.get(plateIdx) : null;
+                if (plate == null || seenPlates.add(plate.toString())) {
+                    for (int i = 0; i < row.size(); i++) {
+                        stmt.setObject(i + 1, row.get(i));
+                    }
+                    stmt.addBatch();
+                    rows++;
+                    if (++pending == BATCH_SIZE) {
+                        stmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+                SqlTokenizer.Token sep = tokens.next();
+                if (sep == null || sep.isDelimiter()) {
+                    break;
+                }
+                expect(sep, ',');
             }
-            if (block.endsWith(");")) {
-                block = block.substring(0, block.length() - 2);
+            if (pending > 0) {
+                stmt.executeBatch();
             }
-            // Now block is comma-separated fields.
-            String[] parts = splitTopLevel(block);
-            if (parts.length < 8) {
-                continue; // sanity
+        }
+        return rows;
+    }
 
+    /**
+     * Reads literal values up to the closing parenthesis of a row.
+     */
+    private static List<Object> readTuple(SqlTokenizer tokens) throws IOException {
+        List<Object> row = new ArrayList<>();
+        while (true) {
+            SqlTokenizer.Token t = tokens.next();
+            boolean negative = false;
+            if (t != null && t.isSymbol('-')) {
+                negative = true;
+                t = tokens.next();
+            }
+            if (t == null) {
+                throw new IOException("Unexpected end of script in VALUES row");
             }
-            String licensePlate = stripQuotes(parts[3].trim());
-            if (seenPlates.contains(licensePlate)) {
-                continue;
+            switch (t.getType()) {
+                case STRING:
+                    row.add(t.getText());
+                    break;
+                case NUMBER:
+                    BigDecimal n = new BigDecimal(t.getText());
+                    row.add(negative ? n.negate() : n);
+                    break;
+                case WORD:
+                    if (t.isWord("NULL")) {
+                        row.add(null);
+                    } else if (t.isWord("TRUE") || t.isWord("FALSE")) {
+                        row.add(t.isWord("TRUE"));
+                    } else {
+                        throw new IOException("Unsupported value " + t);
+                    }
+                    break;
+                default:
+                    throw new IOException("Unexpected " + t);
             }
-            seenPlates.add(licensePlate);
-            // Reconstruct single-row insert IGNORE
-            String single = "INSERT IGNORE INTO cars (make, model, year, license_plate, status, specs, price_per_day, total_km_driven) VALUES ("
-                    + parts[0].trim() + "," + parts[1].trim() + "," + parts[2].trim() + "," + parts[3].trim() + ","
-                    + parts[4].trim() + "," + parts[5].trim() + "," + parts[6].trim() + "," + parts[7].trim() + ")";
-            try (Statement st = conn.createStatement()) {
-                int uc = st.executeUpdate(single);
-                inserted += uc; // 1 if inserted, 0 if duplicate
+            SqlTokenizer.Token sep = tokens.next();
+            if (sep != null && sep.isSymbol(')')) {
+                return row;
             }
+            expect(sep, ',');
         }
-        return inserted;
     }
 
-    private static String stripQuotes(String s) {
-        s = s.trim();
-        if (s.startsWith("'") && s.endsWith("'")) {
-            return s.substring(1, s.length() - 1);
+    private static int skipStatement(SqlTokenizer tokens) throws IOException {
+        SqlTokenizer.Token t;
+        while ((t = tokens.next()) != null && !t.isDelimiter()) {
+            // skip
         }
-        return s;
+        return 0;
     }
 
-    private static String[] splitTopLevel(String block) {
-        // Splits on commas not inside quotes
-        java.util.List<String> out = new java.util.ArrayList<>();
-        StringBuilder cur = new StringBuilder();
-        boolean inQuote = false;
-        for (int i = 0; i < block.length(); i++) {
-            char c = block.charAt(i);
-            if (c == '\\' && i + 1 < block.length()) { // escape seq
-                cur.append(c).append(block.charAt(i + 1));
-                i++;
-                continue;
+    private static void expect(SqlTokenizer.Token t, char symbol) throws IOException {
+        if (t == null || !t.isSymbol(symbol)) {
+            throw new IOException("Expected '" + symbol + "', got " + (t == null ? "end of script" : t.toString()));
+        }
+    }
+
+    private static void ensureUniqueIndex(Connection conn) {
+        try (Statement st = conn.createStatement()) {
+            // Check if index already exists
+            DatabaseMetaData meta = conn.getMetaData();
+            ResultSet indexes = meta.getIndexInfo(null, null, "cars", true, false);
+            boolean indexExists = false;
+            while (indexes.next()) {
+                if ("ux_cars_license_plate".equals(indexes.getString("INDEX_NAME"))) {
+                    indexExists = true;
+                    break;
+                }
             }
-            if (c == '\'') {
-                inQuote = !inQuote;
-                cur.append(c);
-                continue;
+            if (!indexExists) {
+                st.execute("ALTER TABLE cars ADD UNIQUE INDEX ux_cars_license_plate (license_plate)");
             }
-            if (c == ',' && !inQuote) {
-                out.add(cur.toString());
-                cur.setLength(0);
-            } else {
-                cur.append(c);
+        } catch (SQLException e) {
+            if (!e.getMessage().toLowerCase().contains("duplicate")) {
+                System.out.println("DatabaseSeeder: Index creation warning: " + e.getMessage());
             }
         }
-        if (cur.length() > 0) {
-            out.add(cur.toString());
+    }
+
+    private static int existingCarCount(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM cars")) {
+            rs.next();
+            return rs.getInt(1);
         }
-        return out.toArray(new String[0]);
     }
 }
@@ -13,6 +13,8 @@ public class DatabaseTest {
                 System.out.println("Database URL: " + conn.getMetaData().getURL());
                 System.out.println("Database Product: " + conn.getMetaData().getDatabaseProductName());
                 System.out.println("Database Version: " + conn.getMetaData().getDatabaseProductVersion());
+                System.out.println("Connection Pool: " + (DatabaseConnection.getPoolStats() != null ? DatabaseConnection.getPoolStats() : "disabled"));
+                System.out.println("Entity caches: " + dao.CarDAO.cache() + "; " + dao.UserDAO.cache());
             } else {
                 System.out.println("✗ Database connection failed - connection is null or closed");
             }
@@ -1,53 +1,353 @@
 package utils;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.Locale;
 
 /**
- * Utility to run SQL queries from command line
+ * Utility to run SQL queries from command line.
+ *
+ * Rows are streamed from MySQL one at a time (fetch size
+ * Integer.MIN_VALUE on a forward-only, read-only statement) and written
+ * through a buffered writer, so exporting a large table runs in constant
+ * memory. Output is a tab-separated table (default), CSV or JSON lines.
+ *
+ * Usage: DbQueryRunner [--format table|csv|jsonl] [--out file] [--limit N]
+ *                      [--timing] [--no-stream] "SQL QUERY"
  */
 public class DbQueryRunner {
 
+    private static final int OUTPUT_BUFFER = 1 << 16;
+
     public static void main(String[] args) {
-        if (args.length == 0) {
-            System.out.println("Usage: DbQueryRunner \"SQL QUERY\"");
+        String sql = null;
+        String format = "table";
+        String out = null;
+        long limit = 0;
+        boolean timing = false;
+        boolean stream = true;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            boolean takesValue = arg.equals("--format") || arg.equals("--out") || arg.equals("--limit");
+            if (takesValue && i + 1 >= args.length) {
+                usage("Missing value for " + arg);
+                return;
+            }
+            switch (arg) {
+                case "--format":
+                    format = args[++i].toLowerCase(Locale.ROOT);
+                    if (!(format.equals("table") || format.equals("csv") || format.equals("jsonl"))) {
+                        usage("Unknown format: " + args[i]);
+                        return;
+                    }
+                    break;
+                case "--out":
+                    out = args[++i];
+                    break;
+                case "--limit":
+                    try {
+                        limit = Long.parseLong(args[++i]);
+                    } catch (NumberFormatException e) {
+                        limit = -1;
+                    }
+                    if (limit < 0) {
+                        usage("Invalid limit: " + args[i]);
+                        return;
+                    }
+                    break;
+                case "--timing":
+                    timing = true;
+                    break;
+                case "--no-stream":
+                    stream = false;
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        usage("Unknown option: " + arg);
+                        return;
+                    }
+                    if (sql != null) {
+                        usage("Unexpected argument: " + arg);
+                        return;
+                    }
+                    sql = arg;
+            }
+        }
+        if (sql == null) {
+            usage(null);
             return;
         }
 
-        String sql = args[0];
-        System.out.println("Executing query: " + sql);
+        // Keep stdout clean for machine-readable formats
+        if (format.equals("table") && out == null) {
+            System.out.println("Executing query: " + sql);
+        }
 
-        try (Connection conn = DatabaseConnection.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            if (stream) {
+                // MySQL Connector/J: stream rows instead of buffering the whole result
+                stmt.setFetchSize(Integer.MIN_VALUE);
+            }
+            if (limit > 0) {
+                // Applied by the server (SQL_SELECT_LIMIT), so a stream is not drained on close
+                stmt.setMaxRows((int) Math.min(limit, Integer.MAX_VALUE));
+            }
+            OutputStream target = out != null ? Files.newOutputStream(Paths.get(out)) : System.out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), OUTPUT_BUFFER);
+            long rows;
+            long firstRowNanos;
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                RowWriter rowWriter = createWriter(format, writer, rs.getMetaData());
+                rowWriter.header();
+                rows = 0;
+                firstRowNanos = -1;
+                while (rs.next()) {
+                    if (firstRowNanos < 0) {
+                        firstRowNanos = System.nanoTime() - start;
+                    }
+                    rowWriter.row(rs);
+                    rows++;
+                }
+                writer.flush();
+            } finally {
+                if (out != null) {
+                    writer.close();
+                }
+            }
+            if (timing) {
+                double totalMs = (System.nanoTime() - start) / 1_000_000.0;
+                System.err.printf("%d rows in %.1f ms (first row after %.1f ms, %.0f rows/s)%n",
+                        rows, totalMs, Math.max(firstRowNanos, 0) / 1_000_000.0, totalMs > 0 ? rows * 1000 / totalMs : 0.0);
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("Error executing query: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
 
-            // Print column headers
-            ResultSetMetaData metaData = rs.getMetaData();
-            int columnCount = metaData.getColumnCount();
+    private static void usage(String error) {
+        if (error != null) {
+            System.err.println(error);
+        }
+        System.out.println("Usage: DbQueryRunner [--format table|csv|jsonl] [--out file] [--limit N] [--timing] [--no-stream] \"SQL QUERY\"");
+    }
+
+    private static RowWriter createWriter(String format, Writer writer, ResultSetMetaData meta) throws SQLException {
+        switch (format) {
+            case "csv":
+                return new CsvWriter(writer, meta);
+            case "jsonl":
+                return new JsonLinesWriter(writer, meta);
+            default:
+                return new TableWriter(writer, meta);
+        }
+    }
+
+    /**
+     * Writes the current row of a result set in one output format.
+     */
+    private abstract static class RowWriter {
+        final Writer out;
+        final int columnCount;
+        final String[] names;
+
+        RowWriter(Writer out, ResultSetMetaData meta) throws SQLException {
+            this.out = out;
+            this.columnCount = meta.getColumnCount();
+            this.names = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                names[i] = meta.getColumnLabel(i + 1);
+            }
+        }
+
+        abstract void header() throws IOException;
+
+        abstract void row(ResultSet rs) throws SQLException, IOException;
+    }
+
+    /**
+     * Tab-separated columns with a header and separator line.
+     */
+    private static final class TableWriter extends RowWriter {
+        TableWriter(Writer out, ResultSetMetaData meta) throws SQLException {
+            super(out, meta);
+        }
+
+        @Override
+        void header() throws IOException {
+            for (String name : names) {
+                out.write(name);
+                out.write('\t');
+            }
+            out.write('\n');
+            for (int i = 0; i < columnCount; i++) {
+                out.write("----------------\t");
+            }
+            out.write('\n');
+        }
 
+        @Override
+        void row(ResultSet rs) throws SQLException, IOException {
             for (int i = 1; i <= columnCount; i++) {
-                System.out.print(metaData.getColumnName(i) + "\t");
+                out.write(String.valueOf(rs.getString(i)));
+                out.write('\t');
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * RFC 4180 CSV; NULL is written as an empty field.
+     */
+    private static final class CsvWriter extends RowWriter {
+        CsvWriter(Writer out, ResultSetMetaData meta) throws SQLException {
+            super(out, meta);
+        }
+
+        @Override
+        void header() throws IOException {
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeField(names[i]);
             }
-            System.out.println();
+            out.write("\r\n");
+        }
 
-            // Print separator
+        @Override
+        void row(ResultSet rs) throws SQLException, IOException {
             for (int i = 1; i <= columnCount; i++) {
-                System.out.print("----------------\t");
+                if (i > 1) {
+                    out.write(',');
+                }
+                String value = rs.getString(i);
+                if (value != null) {
+                    writeField(value);
+                }
             }
-            System.out.println();
+            out.write("\r\n");
+        }
 
-            // Print data rows
-            while (rs.next()) {
-                for (int i = 1; i <= columnCount; i++) {
-                    System.out.print(rs.getString(i) + "\t");
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    /**
+     * One JSON object per row; numeric and boolean columns are written as
+     * JSON numbers/booleans, everything else as strings.
+     */
+    private static final class JsonLinesWriter extends RowWriter {
+        private final String[] keys;
+        private final int[] kinds;
+
+        private static final int STRING = 0;
+        private static final int NUMBER = 1;
+        private static final int BOOLEAN = 2;
+
+        JsonLinesWriter(Writer out, ResultSetMetaData meta) throws SQLException {
+            super(out, meta);
+            keys = new String[columnCount];
+            kinds = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                keys[i] = quote(names[i]) + ":";
+                switch (meta.getColumnType(i + 1)) {
+                    case Types.TINYINT:
+                    case Types.SMALLINT:
+                    case Types.INTEGER:
+                    case Types.BIGINT:
+                    case Types.DECIMAL:
+                    case Types.NUMERIC:
+                    case Types.REAL:
+                    case Types.FLOAT:
+                    case Types.DOUBLE:
+                        kinds[i] = NUMBER;
+                        break;
+                    case Types.BIT:
+                    case Types.BOOLEAN:
+                        kinds[i] = BOOLEAN;
+                        break;
+                    default:
+                        kinds[i] = STRING;
                 }
-                System.out.println();
             }
+        }
 
-        } catch (SQLException e) {
-            System.out.println("Error executing query: " + e.getMessage());
-            e.printStackTrace();
+        @Override
+        void header() {
+            // JSON lines has no header
+        }
+
+        @Override
+        void row(ResultSet rs) throws SQLException, IOException {
+            out.write('{');
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(keys[i]);
+                if (kinds[i] == BOOLEAN) {
+                    boolean value = rs.getBoolean(i + 1);
+                    out.write(rs.wasNull() ? "null" : String.valueOf(value));
+                    continue;
+                }
+                String value = rs.getString(i + 1);
+                if (value == null) {
+                    out.write("null");
+                } else if (kinds[i] == NUMBER && !value.equalsIgnoreCase("NaN") && !value.contains("Infinity")) {
+                    out.write(value);
+                } else {
+                    out.write(quote(value));
+                }
+            }
+            out.write("}\n");
+        }
+
+        private static String quote(String s) {
+            StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+            return sb.append('"').toString();
         }
     }
 }
@@ -0,0 +1,62 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Measures PasswordHasher latency at increasing costs and suggests the
+ * highest cost that stays under a target login latency.
+ *
+ * One verify at the chosen cost is also the CPU time a login costs, so
+ * cores * 1000 / latencyMs is the ceiling on logins per second.
+ *
+ * Usage: PasswordHashBenchmark [targetMs] [scheme] [samples]
+ */
+public class PasswordHashBenchmark {
+
+    public static void main(String[] args) {
+        double targetMs = args.length > 0 ? Double.parseDouble(args[0]) : 100;
+        String schemeId = args.length > 1 ? args[1] : PasswordHasher.DEFAULT_SCHEME;
+        int samples = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+
+        PasswordHasher.Scheme scheme = PasswordHasher.scheme(schemeId);
+        if (scheme == null) {
+            System.out.println("Unknown scheme " + schemeId);
+            return;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Scheme " + schemeId + ", target " + targetMs + " ms, " + cores + " cores");
+
+        // Warm up the JIT before measuring
+        for (int i = 0; i < 20; i++) {
+            PasswordHasher.encode("warmup-password", scheme, 10_000);
+        }
+
+        int best = 0;
+        for (int cost = 10_000; cost <= 2_000_000; cost *= 2) {
+            double median = medianMs(scheme, cost, samples);
+            System.out.printf("cost %,9d: median %7.1f ms, <= %,8.0f logins/s%n", cost, median, cores * 1000 / median);
+            if (median <= targetMs) {
+                best = (int) (cost * (targetMs / median));
+            } else {
+                break;
+            }
+        }
+        if (best > 0) {
+            double median = medianMs(scheme, best, samples);
+            System.out.printf("Suggested password.cost=%d (median %.1f ms)%n", best, median);
+        } else {
+            System.out.println("Even the lowest cost exceeds the target");
+        }
+    }
+
+    private static double medianMs(PasswordHasher.Scheme scheme, int cost, int samples) {
+        double[] times = new double[samples];
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            PasswordHasher.encode("benchmark-password", scheme, cost);
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        return times[samples / 2];
+    }
+}
@@ -1,10 +1,140 @@
 package utils;
 
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 
+/**
+ * Password hashing for users.password_hash.
+ *
+ * New hashes are stored as {@code <scheme>$<cost>$<salt>$<hash>} (e.g.
+ * {@code pbkdf2-sha256$210000$...$...}), so the scheme and work factor can
+ * change without invalidating existing rows. Rows in the original
+ * {@code hash:salt} format (one salted SHA-256 pass) still verify;
+ * {@link #needsRehash(String)} tells the caller to re-encode them, or
+ * any row below the configured cost, after a successful login.
+ *
+ * The scheme and cost come from password.scheme / password.cost in
+ * config/db.properties. Use {@link PasswordHashBenchmark} to pick a cost
+ * for the target login latency.
+ */
 public class PasswordHasher {
+
+    /**
+     * A salted, tunable password hashing function.
+     */
+    public interface Scheme {
+        /** Identifier written as the first field of the stored hash. */
+        String id();
+
+        /** Cost used when none is configured. */
+        int defaultCost();
+
+        byte[] derive(String password, byte[] salt, int cost);
+    }
+
+    public static final String DEFAULT_SCHEME = "pbkdf2-sha256";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int SALT_BYTES = 16;
+    private static final Map<String, Scheme> SCHEMES = new ConcurrentHashMap<>();
+
+    static {
+        register(new Pbkdf2("pbkdf2-sha256", "PBKDF2WithHmacSHA256", 32, 210_000));
+        register(new Pbkdf2("pbkdf2-sha512", "PBKDF2WithHmacSHA512", 64, 120_000));
+    }
+
+    private static volatile Scheme currentScheme;
+    private static volatile int currentCost;
+
+    /**
+     * Makes a scheme available for encoding (via password.scheme) and for
+     * verifying stored hashes that name it.
+     */
+    public static void register(Scheme scheme) {
+        SCHEMES.put(scheme.id(), scheme);
+    }
+
+    public static Scheme scheme(String id) {
+        return SCHEMES.get(id);
+    }
+
+    /**
+     * Hashes a password with the configured scheme and cost and a fresh salt.
+     */
+    public static String encode(String password) {
+        Scheme scheme = currentScheme();
+        return encode(password, scheme, currentCost);
+    }
+
+    public static String encode(String password, Scheme scheme, int cost) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Base64.Encoder b64 = Base64.getEncoder();
+        return scheme.id() + "$" + cost + "$" + b64.encodeToString(salt) + "$"
+                + b64.encodeToString(scheme.derive(password, salt, cost));
+    }
+
+    /**
+     * Checks a password against a stored hash in either the current or the
+     * legacy {@code hash:salt} format. Unknown or malformed values never match.
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        try {
+            String[] parts = stored.split("\\$");
+            if (parts.length == 4) {
+                Scheme scheme = SCHEMES.get(parts[0]);
+                if (scheme == null) {
+                    System.err.println("Unknown password scheme: " + parts[0]);
+                    return false;
+                }
+                Base64.Decoder b64 = Base64.getDecoder();
+                byte[] expected = b64.decode(parts[3]);
+                byte[] actual = scheme.derive(password, b64.decode(parts[2]), Integer.parseInt(parts[1]));
+                return MessageDigest.isEqual(expected, actual);
+            }
+            String[] hashSalt = stored.split(":");
+            if (hashSalt.length == 2) {
+                return MessageDigest.isEqual(hashSalt[0].getBytes(), hash(password, hashSalt[1]).getBytes());
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Malformed password hash: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * True when the stored hash is legacy, uses another scheme, or has a
+     * lower cost than currently configured.
+     */
+    public static boolean needsRehash(String stored) {
+        if (stored == null) {
+            return false;
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return true;
+        }
+        Scheme scheme = currentScheme();
+        try {
+            return !scheme.id().equals(parts[0]) || Integer.parseInt(parts[1]) < currentCost;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Legacy single-pass salted SHA-256, kept to verify {@code hash:salt} rows.
+     */
     public static String hash(String password, String salt) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
@@ -17,8 +147,67 @@ public class PasswordHasher {
     }
 
     public static String generateSalt() {
-        byte[] salt = new byte[16];
-        new SecureRandom().nextBytes(salt);
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
         return Base64.getEncoder().encodeToString(salt);
     }
+
+    private static Scheme currentScheme() {
+        Scheme scheme = currentScheme;
+        if (scheme == null) {
+            synchronized (PasswordHasher.class) {
+                scheme = currentScheme;
+                if (scheme == null) {
+                    String id = DatabaseConnection.getProperty("password.scheme", DEFAULT_SCHEME);
+                    scheme = SCHEMES.get(id);
+                    if (scheme == null) {
+                        System.err.println("Unknown password.scheme " + id + ", using " + DEFAULT_SCHEME);
+                        scheme = SCHEMES.get(DEFAULT_SCHEME);
+                    }
+                    currentCost = Math.max(1, DatabaseConnection.getIntProperty("password.cost", scheme.defaultCost()));
+                    currentScheme = scheme;
+                }
+            }
+        }
+        return scheme;
+    }
+
+    /**
+     * PBKDF2 from the JDK; cost is the iteration count.
+     */
+    private static final class Pbkdf2 implements Scheme {
+        private final String id;
+        private final String algorithm;
+        private final int keyBytes;
+        private final int defaultCost;
+
+        Pbkdf2(String id, String algorithm, int keyBytes, int defaultCost) {
+            this.id = id;
+            this.algorithm = algorithm;
+            this.keyBytes = keyBytes;
+            this.defaultCost = defaultCost;
+        }
+
+        @Override
+        public String id() {
+            return id;
+        }
+
+        @Override
+        public int defaultCost() {
+            return defaultCost;
+        }
+
+        @Override
+        public byte[] derive(String password, byte[] salt, int cost) {
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, cost, keyBytes * 8);
+            try {
+                return SecretKeyFactory.getInstance(algorithm).generateSecret(spec).getEncoded();
+            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+                throw new RuntimeException("Hashing error", e);
+            } finally {
+                spec.clearPassword();
+            }
+        }
+    }
 }
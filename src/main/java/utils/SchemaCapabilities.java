@@ -0,0 +1,102 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caches which optional columns exist in the application tables.
+ *
+ * The schema has grown through ad-hoc migrations (total_km_driven, image
+ * columns, organization), so DAOs need to know what is present. Probing
+ * metadata on every query is a round trip per call; instead the tables are
+ * probed once on first use and re-probed via {@link #refresh()} after
+ * {@link SchemaUpdater} / {@link DatabaseSchemaUpdater} alter them.
+ */
+public final class SchemaCapabilities {
+
+    private static final String[] TABLES = {"users", "cars", "bookings", "user_sessions"};
+
+    private static volatile SchemaCapabilities current;
+
+    private final Map<String, Set<String>> columnsByTable;
+    private final boolean probed;
+
+    private SchemaCapabilities(Map<String, Set<String>> columnsByTable, boolean probed) {
+        this.columnsByTable = columnsByTable;
+        this.probed = probed;
+    }
+
+    /**
+     * Returns the cached capabilities, probing the database on first use.
+     */
+    public static SchemaCapabilities get() {
+        SchemaCapabilities caps = current;
+        if (caps == null) {
+            synchronized (SchemaCapabilities.class) {
+                caps = current;
+                if (caps == null) {
+                    caps = probe();
+                    // Only cache a successful probe so a DB outage at startup is retried later
+                    if (caps.probed) {
+                        current = caps;
+                    }
+                }
+            }
+        }
+        return caps;
+    }
+
+    /**
+     * Re-reads table metadata. Call after running schema migrations.
+     */
+    public static synchronized SchemaCapabilities refresh() {
+        SchemaCapabilities caps = probe();
+        current = caps.probed ? caps : null;
+        return caps;
+    }
+
+    private static SchemaCapabilities probe() {
+        Map<String, Set<String>> columns = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            DatabaseMetaData meta = conn.getMetaData();
+            String catalog = conn.getCatalog();
+            for (String table : TABLES) {
+                Set<String> names = new HashSet<>();
+                try (ResultSet rs = meta.getColumns(catalog, null, table, null)) {
+                    while (rs.next()) {
+                        names.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                    }
+                }
+                columns.put(table, Collections.unmodifiableSet(names));
+            }
+            SchemaCapabilities caps = new SchemaCapabilities(columns, true);
+            System.out.println("SchemaCapabilities: cars.total_km_driven=" + caps.carsHaveKmDriven()
+                    + ", cars image columns=" + caps.carsHaveImageColumns());
+            return caps;
+        } catch (SQLException e) {
+            System.err.println("SchemaCapabilities: Error probing schema: " + e.getMessage());
+            return new SchemaCapabilities(Collections.emptyMap(), false);
+        }
+    }
+
+    public boolean hasColumn(String table, String column) {
+        Set<String> names = columnsByTable.get(table.toLowerCase(Locale.ROOT));
+        return names != null && names.contains(column.toLowerCase(Locale.ROOT));
+    }
+
+    public boolean carsHaveKmDriven() {
+        return hasColumn("cars", "total_km_driven");
+    }
+
+    public boolean carsHaveImageColumns() {
+        return hasColumn("cars", "exterior_images") && hasColumn("cars", "interior_images");
+    }
+}
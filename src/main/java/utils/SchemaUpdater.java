@@ -108,6 +108,8 @@ public class SchemaUpdater {
                 String createIndexes = """
                     CREATE INDEX idx_session_token ON user_sessions(session_token);
                     CREATE INDEX idx_user_active_sessions ON user_sessions(user_id, is_active);
+                    CREATE INDEX idx_sessions_active_accessed ON user_sessions(is_active, last_accessed);
+                    CREATE INDEX idx_sessions_created ON user_sessions(created_at);
                     """;
                 try (Statement stmt = conn.createStatement()) {
                     for (String indexSql : createIndexes.split(";")) {
@@ -119,6 +121,20 @@ public class SchemaUpdater {
                 }
             }
 
+            // Check if booking_version column exists in cars table (optimistic booking path)
+            rs = meta.getColumns(null, null, "cars", "booking_version");
+            if (rs.next()) {
+                System.out.println("Booking version column already exists in cars table");
+            } else {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("ALTER TABLE cars ADD COLUMN booking_version INT NOT NULL DEFAULT 0");
+                    System.out.println("Booking version column added successfully to cars table");
+                }
+            }
+
+            // Re-probe optional columns now that migrations have run
+            SchemaCapabilities.refresh();
+
         } catch (SQLException e) {
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
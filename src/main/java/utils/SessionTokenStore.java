@@ -0,0 +1,72 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Keeps this installation's session token in a local file so the session
+ * can be restored by token (a unique-index lookup) on the next start.
+ *
+ * The file lives at ~/.rentops-ai/session.token unless
+ * session.tokenFile is set in config/db.properties, and is made
+ * owner-readable only where the file system supports it.
+ */
+public final class SessionTokenStore {
+
+    private SessionTokenStore() {
+    }
+
+    private static Path file() {
+        String configured = DatabaseConnection.getProperty("session.tokenFile", null);
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".rentops-ai", "session.token");
+    }
+
+    /**
+     * Returns the saved token, or null if none is saved or it cannot be read.
+     */
+    public static String load() {
+        Path path = file();
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            String token = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim();
+            return token.isEmpty() ? null : token;
+        } catch (IOException e) {
+            System.err.println("Could not read session token: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void save(String token) {
+        Path path = file();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, token.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // Non-POSIX file system (Windows); rely on the user profile's ACLs
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save session token: " + e.getMessage());
+        }
+    }
+
+    public static void clear() {
+        try {
+            Files.deleteIfExists(file());
+        } catch (IOException e) {
+            System.err.println("Could not delete session token: " + e.getMessage());
+        }
+    }
+}
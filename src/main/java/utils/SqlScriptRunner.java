@@ -1,83 +1,159 @@
 package utils;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Locale;
 
 /**
- * Utility to execute SQL scripts from file
+ * Utility to execute SQL scripts from file.
+ *
+ * The script is streamed through {@link SqlStatementReader}, so its size
+ * does not matter. Consecutive INSERT/UPDATE/DELETE/REPLACE statements are
+ * sent as JDBC batches of up to batchSize statements, each committed as one
+ * transaction; any other statement (DDL, USE, SET, SELECT, ...) first
+ * flushes the pending batch and then runs on its own. The first failure
+ * rolls back the open batch and stops the run.
+ *
+ * Usage: SqlScriptRunner &lt;script_file_path&gt; [batchSize]
  */
 public class SqlScriptRunner {
 
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
     public static void main(String[] args) {
         if (args.length == 0) {
-            System.out.println("Usage: SqlScriptRunner <script_file_path>");
+            System.out.println("Usage: SqlScriptRunner <script_file_path> [batchSize]");
             return;
         }
 
         String scriptPath = args[0];
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BATCH_SIZE;
         System.out.println("Executing script: " + scriptPath);
 
-        try {
-            List<String> statements = readSqlStatementsFromFile(scriptPath);
-
-            if (statements.isEmpty()) {
-                System.out.println("No SQL statements found in the file.");
-                return;
-            }
-
-            System.out.println("Found " + statements.size() + " SQL statements to execute.");
-
-            try (Connection conn = DatabaseConnection.getConnection()) {
-                try (Statement stmt = conn.createStatement()) {
-                    for (String sql : statements) {
-                        System.out.println("Executing: " + sql);
-                        boolean isResultSet = stmt.execute(sql);
-                        if (!isResultSet) {
-                            int updateCount = stmt.getUpdateCount();
-                            System.out.println("Update count: " + updateCount);
-                        }
-                    }
-                    System.out.println("Script executed successfully!");
-                }
-            }
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(scriptPath), StandardCharsets.UTF_8);
+             Connection conn = DatabaseConnection.getConnection()) {
+            new SqlScriptRunner(conn, batchSize).run(new SqlStatementReader(reader));
+            System.out.println("Script executed successfully!");
         } catch (Exception e) {
             System.err.println("Error executing script: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    private static List<String> readSqlStatementsFromFile(String filePath) throws Exception {
-        List<String> statements = new ArrayList<>();
-        StringBuilder currentStatement = new StringBuilder();
+    private final Connection conn;
+    private final int batchSize;
+    private int statements;
+    private int batched;
+    private int batches;
+    private int pending;
+    private int pendingLine;
+
+    public SqlScriptRunner(Connection conn, int batchSize) {
+        this.conn = conn;
+        this.batchSize = Math.max(1, batchSize);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // Skip empty lines and comments
-                line = line.trim();
-                if (line.isEmpty() || line.startsWith("--") || line.startsWith("/*")) {
-                    continue;
+    /**
+     * Executes every statement of the script on this runner's connection.
+     */
+    public void run(SqlStatementReader script) throws Exception {
+        long start = System.currentTimeMillis();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            String sql;
+            while ((sql = script.next()) != null) {
+                statements++;
+                if (isDml(sql)) {
+                    if (pending == 0) {
+                        pendingLine = script.getLine();
+                    }
+                    stmt.addBatch(sql);
+                    if (++pending >= batchSize) {
+                        flush(stmt);
+                    }
+                } else {
+                    flush(stmt);
+                    execute(stmt, sql, script.getLine());
                 }
+            }
+            flush(stmt);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        System.out.println("Executed " + statements + " statements (" + batched + " in " + batches + " batches) in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
 
-                currentStatement.append(line).append(" ");
+    private void flush(Statement stmt) throws SQLException {
+        if (pending == 0) {
+            return;
+        }
+        try {
+            int[] counts = stmt.executeBatch();
+            conn.commit();
+            batched += pending;
+            batches++;
+            long rows = 0;
+            for (int c : counts) {
+                rows += Math.max(c, 0);
+            }
+            System.out.println("Batch of " + pending + " statements from line " + pendingLine + ": " + rows + " rows");
+        } catch (SQLException e) {
+            throw new SQLException("Batch starting at line " + pendingLine + " failed: " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        } finally {
+            stmt.clearBatch();
+            pending = 0;
+        }
+    }
 
-                if (line.endsWith(";")) {
-                    statements.add(currentStatement.toString());
-                    currentStatement = new StringBuilder();
+    private void execute(Statement stmt, String sql, int line) throws SQLException {
+        System.out.println("Executing (line " + line + "): " + abbreviate(sql));
+        try {
+            if (stmt.execute(sql)) {
+                int rows = 0;
+                try (ResultSet rs = stmt.getResultSet()) {
+                    while (rs.next()) {
+                        rows++;
+                    }
                 }
+                System.out.println("Rows returned: " + rows);
+            } else {
+                System.out.println("Update count: " + stmt.getUpdateCount());
             }
+            conn.commit();
+        } catch (SQLException e) {
+            throw new SQLException("Statement at line " + line + " failed: " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+    }
 
-            // Add the last statement if it doesn't end with a semicolon
-            String lastStatement = currentStatement.toString().trim();
-            if (!lastStatement.isEmpty()) {
-                statements.add(lastStatement);
-            }
+    private static boolean isDml(String sql) {
+        int end = 0;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        switch (sql.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "INSERT":
+            case "UPDATE":
+            case "DELETE":
+            case "REPLACE":
+                return true;
+            default:
+                return false;
         }
+    }
 
-        return statements;
+    private static String abbreviate(String sql) {
+        String oneLine = sql.replaceAll("\\s+", " ");
+        return oneLine.length() > 200 ? oneLine.substring(0, 200) + "..." : oneLine;
     }
 }
@@ -0,0 +1,69 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a MySQL script into statements as it reads it, the way the mysql
+ * client does.
+ *
+ * Built on {@link SqlTokenizer}, so quoting, escapes and comments follow
+ * the same rules as the seeder. Statements end at the current delimiter
+ * ({@code ;} until a {@code DELIMITER xx} line changes it, as in trigger
+ * and procedure scripts). Comments are dropped and replaced by a single
+ * space, except MySQL executable comments and optimizer hints
+ * ({@code /*! ... *}{@code /}, {@code /*+ ... *}{@code /}), which are kept
+ * in the statement. Only one statement is held in memory at a time.
+ */
+public class SqlStatementReader {
+
+    private final SqlTokenizer tokens;
+    private int statementLine;
+
+    public SqlStatementReader(Reader in) {
+        this.tokens = new SqlTokenizer(in);
+        tokens.setKeepHints(true);
+    }
+
+    /**
+     * Returns the next statement without its delimiter, or null at the end
+     * of the script.
+     */
+    public String next() throws IOException {
+        StringBuilder sql = new StringBuilder();
+        SqlTokenizer.Token t;
+        while ((t = tokens.next()) != null) {
+            if (t.isDelimiter()) {
+                if (sql.length() > 0) {
+                    return sql.toString();
+                }
+                continue;
+            }
+            if (sql.length() == 0) {
+                if (t.isWord("DELIMITER")) {
+                    String d = tokens.readRestOfLine();
+                    if (!d.isEmpty()) {
+                        tokens.setDelimiter(d);
+                    }
+                    continue;
+                }
+                statementLine = t.getLine();
+            } else if (t.hasSpaceBefore()) {
+                sql.append(' ');
+            }
+            sql.append(t.getRaw());
+        }
+        return sql.length() > 0 ? sql.toString() : null;
+    }
+
+    /**
+     * Line on which the statement last returned by {@link #next()} starts.
+     */
+    public int getLine() {
+        return statementLine;
+    }
+
+    public String getDelimiter() {
+        return tokens.getDelimiter();
+    }
+}
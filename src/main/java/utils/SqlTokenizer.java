@@ -0,0 +1,323 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming lexer for MySQL scripts.
+ *
+ * Reads one character at a time from the underlying reader, so scripts of
+ * any size are tokenized in constant memory. Whitespace and comments
+ * ({@code -- ...} followed by a space or end of line, {@code # ...},
+ * {@code /* ... *}{@code /}) are skipped; quoted strings keep semicolons,
+ * commas and comment markers as data and are returned unescaped, with the
+ * source form available from {@link Token#getRaw()}. Backquoted
+ * identifiers are returned as words.
+ *
+ * The statement delimiter ({@code ;} by default, changed with
+ * {@link #setDelimiter} for DELIMITER blocks) is returned as a
+ * {@link Type#DELIMITER} token. MySQL executable comments and optimizer
+ * hints ({@code /*! ... *}{@code /}, {@code /*+ ... *}{@code /}) are
+ * returned as {@link Type#HINT} tokens when enabled with
+ * {@link #setKeepHints}, and skipped otherwise.
+ */
+public class SqlTokenizer {
+
+    public enum Type {
+        WORD, STRING, NUMBER, SYMBOL, DELIMITER, HINT
+    }
+
+    public static final class Token {
+        private final Type type;
+        private final String text;
+        private final String raw;
+        private final int line;
+        private final boolean spaceBefore;
+
+        Token(Type type, String text, String raw, int line, boolean spaceBefore) {
+            this.type = type;
+            this.text = text;
+            this.raw = raw;
+            this.line = line;
+            this.spaceBefore = spaceBefore;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * The word, number or symbol as written, or a string's unescaped value.
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * The token exactly as it appears in the script (quotes and escapes
+         * included).
+         */
+        public String getRaw() {
+            return raw;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * True when whitespace or a comment separates this token from the
+         * previous one.
+         */
+        public boolean hasSpaceBefore() {
+            return spaceBefore;
+        }
+
+        public boolean is(Type type, String text) {
+            return this.type == type && this.text.equalsIgnoreCase(text);
+        }
+
+        public boolean isSymbol(char c) {
+            return type == Type.SYMBOL && text.length() == 1 && text.charAt(0) == c;
+        }
+
+        public boolean isWord(String word) {
+            return is(Type.WORD, word);
+        }
+
+        public boolean isDelimiter() {
+            return type == Type.DELIMITER;
+        }
+
+        @Override
+        public String toString() {
+            return type + " '" + text + "' (line " + line + ")";
+        }
+    }
+
+    private final Reader in;
+    // Lookahead buffer, enough for the longest delimiter
+    private int[] ahead = new int[4];
+    private int aheadCount;
+    private int line = 1;
+    private String delimiter = ";";
+    private boolean keepHints;
+
+    public SqlTokenizer(Reader in) {
+        this.in = in;
+    }
+
+    public void setDelimiter(String delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    public String getDelimiter() {
+        return delimiter;
+    }
+
+    public void setKeepHints(boolean keepHints) {
+        this.keepHints = keepHints;
+    }
+
+    /**
+     * Returns the next token, or null at the end of the input.
+     */
+    public Token next() throws IOException {
+        boolean space = false;
+        while (true) {
+            int c = peek(0);
+            if (c < 0) {
+                return null;
+            }
+            if (Character.isWhitespace(c)) {
+                read();
+                space = true;
+                continue;
+            }
+            int startLine = line;
+            if (matchesDelimiter()) {
+                for (int i = 0; i < delimiter.length(); i++) {
+                    read();
+                }
+                return new Token(Type.DELIMITER, delimiter, delimiter, startLine, space);
+            }
+            if (c == '#' || (c == '-' && peek(1) == '-' && (peek(2) < 0 || Character.isWhitespace(peek(2))))) {
+                skipLine();
+                space = true;
+                continue;
+            }
+            if (c == '/' && peek(1) == '*') {
+                boolean hint = peek(2) == '!' || peek(2) == '+';
+                String comment = readBlockComment(hint && keepHints);
+                if (hint && keepHints) {
+                    return new Token(Type.HINT, comment, comment, startLine, space);
+                }
+                space = true;
+                continue;
+            }
+            read();
+            if (c == '\'' || c == '"') {
+                StringBuilder raw = new StringBuilder().append((char) c);
+                String value = readQuoted((char) c, raw);
+                return new Token(Type.STRING, value, raw.toString(), startLine, space);
+            }
+            if (c == '`') {
+                StringBuilder raw = new StringBuilder().append('`');
+                String value = readQuoted('`', raw);
+                return new Token(Type.WORD, value, raw.toString(), startLine, space);
+            }
+            if (isDigit(c) || (c == '.' && isDigit(peek(0)))) {
+                String text = readWhile((char) c, true);
+                return new Token(Type.NUMBER, text, text, startLine, space);
+            }
+            if (Character.isLetter(c) || c == '_' || c == '$' || c == '@') {
+                String text = readWhile((char) c, false);
+                return new Token(Type.WORD, text, text, startLine, space);
+            }
+            String text = String.valueOf((char) c);
+            return new Token(Type.SYMBOL, text, text, startLine, space);
+        }
+    }
+
+    /**
+     * Consumes the rest of the current line and returns it trimmed, e.g.
+     * the argument of a DELIMITER command.
+     */
+    public String readRestOfLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = read()) >= 0 && c != '\n') {
+            sb.append((char) c);
+        }
+        return sb.toString().trim();
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    private boolean matchesDelimiter() throws IOException {
+        for (int i = 0; i < delimiter.length(); i++) {
+            if (peek(i) != delimiter.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readQuoted(char quote, StringBuilder raw) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw new IOException("Unterminated " + quote + " quote at line " + line);
+            }
+            raw.append((char) c);
+            if (c == quote) {
+                if (peek(0) == quote) {
+                    // Doubled quote is a literal quote
+                    sb.append(quote);
+                    raw.append((char) read());
+                    continue;
+                }
+                return sb.toString();
+            }
+            if (c == '\\' && quote != '`') {
+                int e = read();
+                if (e < 0) {
+                    throw new IOException("Unterminated " + quote + " quote at line " + line);
+                }
+                raw.append((char) e);
+                sb.append(unescape((char) e));
+                continue;
+            }
+            sb.append((char) c);
+        }
+    }
+
+    private static String unescape(char e) {
+        switch (e) {
+            case 'n': return "\n";
+            case 'r': return "\r";
+            case 't': return "\t";
+            case '0': return "\0";
+            case 'b': return "\b";
+            case 'Z': return "\u001A";
+            // \% and \_ keep their backslash (LIKE patterns)
+            case '%': return "\\%";
+            case '_': return "\\_";
+            default: return String.valueOf(e);
+        }
+    }
+
+    private String readWhile(char first, boolean number) throws IOException {
+        StringBuilder sb = new StringBuilder().append(first);
+        while (true) {
+            int c = peek(0);
+            boolean part = number
+                    ? isDigit(c) || c == '.' || c == 'e' || c == 'E'
+                    : c >= 0 && (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.');
+            // A delimiter such as $$ ends the word even though $ is a word char
+            if (!part || matchesDelimiter()) {
+                return sb.toString();
+            }
+            sb.append((char) read());
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c >= 0 && c != '\n');
+    }
+
+    /**
+     * Consumes a block comment starting at the current "/*".
+     *
+     * @return the comment text if {@code keep}, otherwise null
+     */
+    private String readBlockComment(boolean keep) throws IOException {
+        StringBuilder sb = keep ? new StringBuilder() : null;
+        int prev = 0;
+        int count = 0;
+        int c;
+        while ((c = read()) >= 0) {
+            if (keep) {
+                sb.append((char) c);
+            }
+            // count > 3 so the opening "/*" cannot also close the comment
+            if (++count > 3 && prev == '*' && c == '/') {
+                break;
+            }
+            prev = c;
+        }
+        return keep ? sb.toString() : null;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private int peek(int offset) throws IOException {
+        if (offset >= ahead.length) {
+            int[] grown = new int[Math.max(offset + 1, ahead.length * 2)];
+            System.arraycopy(ahead, 0, grown, 0, aheadCount);
+            ahead = grown;
+        }
+        while (aheadCount <= offset) {
+            ahead[aheadCount++] = in.read();
+        }
+        return ahead[offset];
+    }
+
+    private int read() throws IOException {
+        int c = peek(0);
+        aheadCount--;
+        System.arraycopy(ahead, 1, ahead, 0, aheadCount);
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}